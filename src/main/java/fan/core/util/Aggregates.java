@@ -0,0 +1,310 @@
+package fan.core.util;
+
+import java.util.Arrays;
+/**
+ * <p> ##################################################### </p>
+ * <p> @描述：基本类型列的聚合计算。配合 Container.projectToDouble、Container.project 等方法, 先将实体集合的字段一次性投影为列, 再在连续的数组上聚合 </p>
+ * <p> 求和、最值按 4 路独立的累加器分块展开, 循环体内没有分支, 相邻的迭代之间没有数据依赖, 便于 JIT 编译器展开和向量化。
+ *     long 的求和按 Java 的整数运算溢出回绕; double 的最值与 Math.min、Math.max 一致, 有 NaN 时结果为 NaN </p>
+ * <pre>
+ * >>> <b><em>e.g.</em></b>
+ * >>> double[] prices = Container.projectToDouble(orderList, Order.class, "price");
+ * >>> Aggregates.sum(prices);
+ * >>> Aggregates.quantiles(prices, 0.5, 0.9, 0.99);
+ * >>> Aggregates.countDistinct(Container.projectToLong(orderList, Order.class, "userId"));
+ * </pre>
+ * <p> @作者：fancy </p>
+ * <p> @邮箱：fancores@163.com </p>
+ * <p> @日期：2014-07-04 </p>
+ * <br> ##################################################### </p>
+ */
+public final class Aggregates {
+
+	/** <p><b><em> 基数估计的精度, 寄存器数量为 2 的 HLL_PRECISION 次幂, 标准误差约为 0.8% </b></em></p> */
+	private static final int HLL_PRECISION = 14;
+	/** <p><b><em> 基数估计的寄存器数量 </b></em></p> */
+	private static final int HLL_REGISTERS = 1 << HLL_PRECISION;
+
+	private Aggregates(){
+
+	}
+
+	/** <p><b><em> 求和 </b></em></p> */
+	public static long sum(long[] values){
+		long s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+		int bound = values.length & ~3;
+		int i = 0;
+		for(; i < bound; i += 4){
+			s0 += values[i];
+			s1 += values[i + 1];
+			s2 += values[i + 2];
+			s3 += values[i + 3];
+		}
+		for(; i < values.length; i++){
+			s0 += values[i];
+		}
+		return s0 + s1 + s2 + s3;
+	}
+
+	/** <p><b><em> 求和 </b></em></p> */
+	public static double sum(double[] values){
+		double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+		int bound = values.length & ~3;
+		int i = 0;
+		for(; i < bound; i += 4){
+			s0 += values[i];
+			s1 += values[i + 1];
+			s2 += values[i + 2];
+			s3 += values[i + 3];
+		}
+		for(; i < values.length; i++){
+			s0 += values[i];
+		}
+		return (s0 + s1) + (s2 + s3);
+	}
+
+	/** <p><b><em> 平均值, 空数组返回 NaN </b></em></p> */
+	public static double mean(long[] values){
+		return values.length == 0 ? Double.NaN : (double) sum(values) / values.length;
+	}
+
+	/** <p><b><em> 平均值, 空数组返回 NaN </b></em></p> */
+	public static double mean(double[] values){
+		return values.length == 0 ? Double.NaN : sum(values) / values.length;
+	}
+
+	/** <p><b><em> 最小值, 数组不能为空 </b></em></p> */
+	public static long min(long[] values){
+		checkNotEmpty(values.length);
+		long m0 = values[0], m1 = m0, m2 = m0, m3 = m0;
+		int bound = values.length & ~3;
+		int i = 0;
+		for(; i < bound; i += 4){
+			m0 = Math.min(m0, values[i]);
+			m1 = Math.min(m1, values[i + 1]);
+			m2 = Math.min(m2, values[i + 2]);
+			m3 = Math.min(m3, values[i + 3]);
+		}
+		for(; i < values.length; i++){
+			m0 = Math.min(m0, values[i]);
+		}
+		return Math.min(Math.min(m0, m1), Math.min(m2, m3));
+	}
+
+	/** <p><b><em> 最小值, 数组不能为空 </b></em></p> */
+	public static double min(double[] values){
+		checkNotEmpty(values.length);
+		double m0 = values[0], m1 = m0, m2 = m0, m3 = m0;
+		int bound = values.length & ~3;
+		int i = 0;
+		for(; i < bound; i += 4){
+			m0 = Math.min(m0, values[i]);
+			m1 = Math.min(m1, values[i + 1]);
+			m2 = Math.min(m2, values[i + 2]);
+			m3 = Math.min(m3, values[i + 3]);
+		}
+		for(; i < values.length; i++){
+			m0 = Math.min(m0, values[i]);
+		}
+		return Math.min(Math.min(m0, m1), Math.min(m2, m3));
+	}
+
+	/** <p><b><em> 最大值, 数组不能为空 </b></em></p> */
+	public static long max(long[] values){
+		checkNotEmpty(values.length);
+		long m0 = values[0], m1 = m0, m2 = m0, m3 = m0;
+		int bound = values.length & ~3;
+		int i = 0;
+		for(; i < bound; i += 4){
+			m0 = Math.max(m0, values[i]);
+			m1 = Math.max(m1, values[i + 1]);
+			m2 = Math.max(m2, values[i + 2]);
+			m3 = Math.max(m3, values[i + 3]);
+		}
+		for(; i < values.length; i++){
+			m0 = Math.max(m0, values[i]);
+		}
+		return Math.max(Math.max(m0, m1), Math.max(m2, m3));
+	}
+
+	/** <p><b><em> 最大值, 数组不能为空 </b></em></p> */
+	public static double max(double[] values){
+		checkNotEmpty(values.length);
+		double m0 = values[0], m1 = m0, m2 = m0, m3 = m0;
+		int bound = values.length & ~3;
+		int i = 0;
+		for(; i < bound; i += 4){
+			m0 = Math.max(m0, values[i]);
+			m1 = Math.max(m1, values[i + 1]);
+			m2 = Math.max(m2, values[i + 2]);
+			m3 = Math.max(m3, values[i + 3]);
+		}
+		for(; i < values.length; i++){
+			m0 = Math.max(m0, values[i]);
+		}
+		return Math.max(Math.max(m0, m1), Math.max(m2, m3));
+	}
+
+	/**
+	 * <p><b><em> 估计不同值的数量 (HyperLogLog), 标准误差约为 0.8% </b></em></p>
+	 * <p> 只占用 16KB 的寄存器, 不随数组长度增长, 不创建任何对象 </p>
+	 */
+	public static long countDistinct(long[] values){
+		byte[] registers = new byte[HLL_REGISTERS];
+		for(int i = 0; i < values.length; i++){
+			register(registers, values[i]);
+		}
+		return estimate(registers);
+	}
+
+	/** <p><b><em> 估计不同值的数量 (HyperLogLog), 0.0 与 -0.0 视为同一个值 </b></em></p> */
+	public static long countDistinct(double[] values){
+		byte[] registers = new byte[HLL_REGISTERS];
+		for(int i = 0; i < values.length; i++){
+			register(registers, Double.doubleToLongBits(values[i] + 0.0));
+		}
+		return estimate(registers);
+	}
+
+	/**
+	 * <p><b><em> 分位数, fractions 中的每一个取值为 [0, 1], 返回与 fractions 同一下标的分位数 </b></em></p>
+	 * <p> 复制数组并只排序一次, 相邻的两个值之间按线性插值。数组不能为空 </p>
+	 * <pre>
+	 * >>> <b><em>e.g.</em></b>
+	 * >>> Aggregates.quantiles(new long[]{1, 2, 3, 4}, 0.5, 1)
+	 * >>> <b><em>output look like :</em></b>
+	 * >>> [2.5, 4.0]
+	 * </pre>
+	 */
+	public static double[] quantiles(long[] values, double... fractions){
+		checkNotEmpty(values.length);
+		long[] sorted = values.clone();
+		Arrays.sort(sorted);
+		double[] result = new double[fractions.length];
+		for(int i = 0; i < fractions.length; i++){
+			double position = position(sorted.length, fractions[i]);
+			int lower = (int) position;
+			int upper = Math.min(lower + 1, sorted.length - 1);
+			result[i] = sorted[lower] + (position - lower) * ((double) sorted[upper] - sorted[lower]);
+		}
+		return result;
+	}
+
+	/** <p><b><em> 分位数, fractions 中的每一个取值为 [0, 1], NaN 排在最后。数组不能为空 </b></em></p> */
+	public static double[] quantiles(double[] values, double... fractions){
+		checkNotEmpty(values.length);
+		double[] sorted = values.clone();
+		Arrays.sort(sorted);
+		double[] result = new double[fractions.length];
+		for(int i = 0; i < fractions.length; i++){
+			double position = position(sorted.length, fractions[i]);
+			int lower = (int) position;
+			int upper = Math.min(lower + 1, sorted.length - 1);
+			result[i] = sorted[lower] + (position - lower) * (sorted[upper] - sorted[lower]);
+		}
+		return result;
+	}
+
+	/** <p><b><em> 单个分位数 </b></em></p> */
+	public static double quantile(long[] values, double fraction){
+		return quantiles(values, fraction)[0];
+	}
+
+	/** <p><b><em> 单个分位数 </b></em></p> */
+	public static double quantile(double[] values, double fraction){
+		return quantiles(values, fraction)[0];
+	}
+
+	/**
+	 * <p><b><em> 将 [min, max] 等分为 bins 个区间, 统计落在每个区间内的值的数量 </b></em></p>
+	 * <p> 等于 max 的值计入最后一个区间, 区间以外的值和 NaN 不计入 </p>
+	 * <pre>
+	 * >>> <b><em>e.g.</em></b>
+	 * >>> Aggregates.histogram(new double[]{0, 1, 2, 9, 10, 11}, 0, 10, 5)
+	 * >>> <b><em>output look like :</em></b>
+	 * >>> [2, 1, 0, 0, 2]
+	 * </pre>
+	 */
+	public static long[] histogram(double[] values, double min, double max, int bins){
+		if(bins <= 0 || !(min < max)){
+			throw new IllegalArgumentException("Illegal histogram range: [" + min + ", " + max + "], bins: " + bins);
+		}
+		long[] counts = new long[bins];
+		double scale = bins / (max - min);
+		for(int i = 0; i < values.length; i++){
+			double value = values[i];
+			if(value >= min && value <= max){
+				counts[Math.min((int) ((value - min) * scale), bins - 1)]++;
+			}
+		}
+		return counts;
+	}
+
+	/** <p><b><em> 统计直方图 </b></em></p> */
+	public static long[] histogram(long[] values, long min, long max, int bins){
+		if(bins <= 0 || min >= max){
+			throw new IllegalArgumentException("Illegal histogram range: [" + min + ", " + max + "], bins: " + bins);
+		}
+		long[] counts = new long[bins];
+		double scale = bins / ((double) max - min);
+		for(int i = 0; i < values.length; i++){
+			long value = values[i];
+			if(value >= min && value <= max){
+				counts[Math.min((int) (((double) value - min) * scale), bins - 1)]++;
+			}
+		}
+		return counts;
+	}
+
+	/** <p><b><em> 分位数在排序后的数组中的位置 </b></em></p> */
+	private static double position(int length, double fraction){
+		if(!(fraction >= 0 && fraction <= 1)){
+			throw new IllegalArgumentException("Illegal fraction: " + fraction);
+		}
+		return fraction * (length - 1);
+	}
+
+	/** <p><b><em> 将值登记到寄存器, 散列值的高位选择寄存器, 其余位的前导 0 的数量 + 1 为寄存器的候选值 </b></em></p> */
+	private static void register(byte[] registers, long value){
+		long hash = fmix(value);
+		int index = (int) (hash >>> (64 - HLL_PRECISION));
+		byte rank = (byte) (Long.numberOfLeadingZeros((hash << HLL_PRECISION) | (1L << (HLL_PRECISION - 1))) + 1);
+		if(rank > registers[index]){
+			registers[index] = rank;
+		}
+	}
+
+	/** <p><b><em> 由寄存器估计基数, 基数较小时按空寄存器的比例做线性计数修正 </b></em></p> */
+	private static long estimate(byte[] registers){
+		double sum = 0;
+		int zeros = 0;
+		for(int i = 0; i < registers.length; i++){
+			sum += 1.0 / (1L << registers[i]);
+			if(registers[i] == 0){
+				zeros++;
+			}
+		}
+		double m = registers.length;
+		double estimate = 0.7213 / (1 + 1.079 / m) * m * m / sum;
+		if(estimate <= 2.5 * m && zeros > 0){
+			estimate = m * Math.log(m / zeros);
+		}
+		return Math.round(estimate);
+	}
+
+	/** <p><b><em> MurmurHash3 的 64 位终结函数, 输入的每一位都影响输出的每一位 </b></em></p> */
+	private static long fmix(long key){
+		key ^= key >>> 33;
+		key *= 0xff51afd7ed558ccdL;
+		key ^= key >>> 33;
+		key *= 0xc4ceb9fe1a85ec53L;
+		key ^= key >>> 33;
+		return key;
+	}
+
+	private static void checkNotEmpty(int length){
+		if(length == 0){
+			throw new IllegalArgumentException("Empty array.");
+		}
+	}
+}
@@ -0,0 +1,68 @@
+package fan.core.util;
+/**
+ * <p> ##################################################### </p>
+ * <p> @描述：按下标读写实体字段属性的访问接口。属性名称只在循环外解析一次为下标, 循环内按下标直接读写 </p>
+ * <p> 下标按子类到父类、字段声明的顺序编排, 父类中被子类同名字段遮蔽的字段不参与编排 </p>
+ * <pre>
+ * >>> <b><em>Definition:</em></b>
+ * >>> User(int id, String name, Date createDate)
+ * >>> <b><em>e.g.</em></b>
+ * >>> BeanAccess access = Reflection.getBeanAccess(User.class);
+ * >>> int id = access.indexOf("id");
+ * >>> int name = access.indexOf("name");
+ * >>> for(User user : userList){
+ * >>>     System.out.println(access.getInt(user, id) + "    " + access.get(user, name));
+ * >>> }
+ * >>> <b><em>output look like :</em></b>
+ * >>> 0    杨晓婷
+ * >>> 1    杨忠杰
+ * </pre>
+ * <p> @作者：fancy </p>
+ * <p> @邮箱：fancores@163.com </p>
+ * <p> @日期：2014-06-08 </p>
+ * <br> ##################################################### </p>
+ */
+public interface BeanAccess {
+
+	/** <p><b><em> 获取实体类 </b></em></p> */
+	Class<?> getEntityClass();
+
+	/** <p><b><em> 获取属性的数量 </b></em></p> */
+	int size();
+
+	/** <p><b><em> 获取属性名称所对应的下标, 属性不存在返回 -1 </b></em></p> */
+	int indexOf(String name);
+
+	/** <p><b><em> 获取下标所对应的属性名称 </b></em></p> */
+	String getName(int index);
+
+	/** <p><b><em> 获取下标所对应的属性类型 </b></em></p> */
+	Class<?> getType(int index);
+
+	/** <p><b><em> 获取下标所对应的属性访问器 </b></em></p> */
+	PropertyAccessor getAccessor(int index);
+
+	/** <p><b><em> 读取属性的值 </b></em></p> */
+	Object get(Object bean, int index);
+
+	/** <p><b><em> 写入属性的值 </b></em></p> */
+	void set(Object bean, int index, Object value);
+
+	/** <p><b><em> 读取数值属性的值 </b></em></p> */
+	int getInt(Object bean, int index);
+
+	/** <p><b><em> 读取数值属性的值 </b></em></p> */
+	long getLong(Object bean, int index);
+
+	/** <p><b><em> 读取数值属性的值 </b></em></p> */
+	double getDouble(Object bean, int index);
+
+	/** <p><b><em> 写入数值属性的值 </b></em></p> */
+	void setInt(Object bean, int index, int value);
+
+	/** <p><b><em> 写入数值属性的值 </b></em></p> */
+	void setLong(Object bean, int index, long value);
+
+	/** <p><b><em> 写入数值属性的值 </b></em></p> */
+	void setDouble(Object bean, int index, double value);
+}
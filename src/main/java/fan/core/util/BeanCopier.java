@@ -0,0 +1,443 @@
+package fan.core.util;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+/**
+ * <p> ##################################################### </p>
+ * <p> @描述：实体之间的属性复制器。首次复制时将源类与目标类的字段对应关系编译为复制计划, 之后每个对象按计划逐个字段复制 </p>
+ * <p> 默认复制同名的字段, 可以改名对应、忽略字段或指定转换器。类型相同或可以拓宽的基本类型字段直接按基本类型读写, 不装箱;
+ *     包装类型与基本类型、数值类型之间按目标类型转换, 源字段为空时基本类型的目标字段保持不变; 目标字段为字符串时取 String.valueOf。
+ *     类型无法转换的同名字段不复制。静态字段、final 字段不复制。复制是浅复制, 引用类型的字段复制引用 </p>
+ * <p> 复制计划随复制器缓存, 复制器应创建一次后反复使用, 编译后可以在线程间共享 </p>
+ * <pre>
+ * >>> <b><em>Definition Class :</em></b>
+ * >>> User(int id, String name, String password, Date createDate)
+ * >>> UserDTO(long id, String userName, Date createDate)
+ * >>> <b><em>e.g.</em></b>
+ * >>> private static final BeanCopier&lt;User, UserDTO&gt; USER_COPIER = BeanCopier.of(User.class, UserDTO.class)
+ * >>>     .map("name", "userName")
+ * >>>     .ignore("createDate");
+ * >>> UserDTO dto = USER_COPIER.copy(user);
+ * >>> List&lt;UserDTO&gt; dtoList = USER_COPIER.copyAll(userList);
+ * </pre>
+ * <p> @作者：fancy </p>
+ * <p> @邮箱：fancores@163.com </p>
+ * <p> @日期：2014-07-05 </p>
+ * <br> ##################################################### </p>
+ */
+public class BeanCopier<S, T> {
+
+	/** <p><b><em> 按 int 读写 </b></em></p> */
+	private static final int INT = 0;
+	/** <p><b><em> 按 long 读写 </b></em></p> */
+	private static final int LONG = 1;
+	/** <p><b><em> 按 double 读写 </b></em></p> */
+	private static final int DOUBLE = 2;
+	/** <p><b><em> 按 float 读写 </b></em></p> */
+	private static final int FLOAT = 3;
+	/** <p><b><em> 按 short 读写 </b></em></p> */
+	private static final int SHORT = 4;
+	/** <p><b><em> 按 byte 读写 </b></em></p> */
+	private static final int BYTE = 5;
+	/** <p><b><em> 按 char 读写 </b></em></p> */
+	private static final int CHAR = 6;
+	/** <p><b><em> 按 boolean 读写 </b></em></p> */
+	private static final int BOOLEAN = 7;
+	/** <p><b><em> 复制引用 </b></em></p> */
+	private static final int REFERENCE = 8;
+	/** <p><b><em> 装箱、拆箱或数值转换 </b></em></p> */
+	private static final int CONVERT = 9;
+	/** <p><b><em> 转换为字符串 </b></em></p> */
+	private static final int TO_STRING = 10;
+	/** <p><b><em> 按指定的转换器转换 </b></em></p> */
+	private static final int CUSTOM = 11;
+
+	/** <p><b><em> 源类 </b></em></p> */
+	private final Class<S> sourceClass;
+	/** <p><b><em> 目标类 </b></em></p> */
+	private final Class<T> targetClass;
+	/** <p><b><em> 目标字段名称 -> 源字段名称 </b></em></p> */
+	private final Map<String, String> mappings = new HashMap<String, String>();
+	/** <p><b><em> 目标字段名称 -> 转换器 </b></em></p> */
+	private final Map<String, Converter<?, ?>> converters = new HashMap<String, Converter<?, ?>>();
+	/** <p><b><em> 不复制的目标字段名称 </b></em></p> */
+	private final Set<String> ignores = new HashSet<String>();
+	/** <p><b><em> 复制计划, 首次复制时编译, 修改对应关系后重新编译 </b></em></p> */
+	private volatile Plan plan;
+
+	public BeanCopier(Class<S> sourceClass, Class<T> targetClass){
+		this.sourceClass = sourceClass;
+		this.targetClass = targetClass;
+	}
+
+	/** <p><b><em> 创建源类到目标类的复制器 </b></em></p> */
+	public static <S, T> BeanCopier<S, T> of(Class<S> sourceClass, Class<T> targetClass){
+		return new BeanCopier<S, T>(sourceClass, targetClass);
+	}
+
+	/** <p><b><em> 将源字段复制到名称不同的目标字段 </b></em></p> */
+	public BeanCopier<S, T> map(String sourceField, String targetField){
+		mappings.put(targetField, sourceField);
+		ignores.remove(targetField);
+		plan = null;
+		return this;
+	}
+
+	/** <p><b><em> 将源字段的值按转换器转换后复制到目标字段 </b></em></p> */
+	public BeanCopier<S, T> map(String sourceField, String targetField, Converter<?, ?> converter){
+		converters.put(targetField, converter);
+		return map(sourceField, targetField);
+	}
+
+	/** <p><b><em> 不复制的目标字段 </b></em></p> */
+	public BeanCopier<S, T> ignore(String... targetFields){
+		for(String targetField : targetFields){
+			ignores.add(targetField);
+			mappings.remove(targetField);
+			converters.remove(targetField);
+		}
+		plan = null;
+		return this;
+	}
+
+	/** <p><b><em> 获取源类 </b></em></p> */
+	public Class<S> getSourceClass() {
+		return sourceClass;
+	}
+
+	/** <p><b><em> 获取目标类 </b></em></p> */
+	public Class<T> getTargetClass() {
+		return targetClass;
+	}
+
+	/** <p><b><em> 以目标类的无参构造方法创建对象, 并复制源对象的属性。源对象为空返回 null </b></em></p> */
+	public T copy(S source){
+		if(source == null){
+			return null;
+		}
+		Plan current = getPlan();
+		T target = current.newTarget();
+		current.copy(source, target);
+		return target;
+	}
+
+	/** <p><b><em> 将源对象的属性复制到已有的目标对象, 返回目标对象 </b></em></p> */
+	public T copy(S source, T target){
+		getPlan().copy(source, target);
+		return target;
+	}
+
+	/** <p><b><em> 复制集合中的每个对象, 返回的列表与集合的迭代顺序一致, 空元素复制为 null </b></em></p> */
+	public List<T> copyAll(Collection<? extends S> sources){
+		return copyAll(sources, Integer.MAX_VALUE);
+	}
+
+	/** <p><b><em> 复制集合中的每个对象, 元素数量不少于 8192 时均分为多段并行复制 </b></em></p> */
+	public List<T> parallelCopyAll(Collection<? extends S> sources){
+		return copyAll(sources, Container.DEFAULT_PARALLEL_THRESHOLD);
+	}
+
+	/** <p><b><em> 复制集合中的每个对象, 元素数量少于 threshold 时按顺序复制 </b></em></p> */
+	public List<T> parallelCopyAll(Collection<? extends S> sources, int threshold){
+		return copyAll(sources, threshold);
+	}
+
+	@Override
+	public String toString() {
+		return "BeanCopier(" + sourceClass.getName() + " -> " + targetClass.getName() + ")";
+	}
+
+	/** <p><b><em> 按阈值顺序或并行复制 </b></em></p> */
+	@SuppressWarnings("unchecked")
+	private List<T> copyAll(Collection<? extends S> sources, int parallelThreshold){
+		final Plan current = getPlan();
+		final Object[] source = sources.toArray();
+		final Object[] target = new Object[source.length];
+		int parts = Container.partsFor(source.length, parallelThreshold);
+		final int[] bounds = ParallelExecutor.split(source.length, parts);
+		ParallelExecutor.invokeAll(parts, new ParallelExecutor.Task() {
+
+			@Override
+			public void run(int part) {
+				for(int i = bounds[part]; i < bounds[part + 1]; i++){
+					if(source[i] != null){
+						target[i] = current.newTarget();
+						current.copy(source[i], target[i]);
+					}
+				}
+			}
+
+		});
+		List<T> result = new ArrayList<T>(target.length);
+		for(Object element : target){
+			result.add((T) element);
+		}
+		return result;
+	}
+
+	/** <p><b><em> 获取复制计划, 未编译时编译 </b></em></p> */
+	private Plan getPlan(){
+		Plan current = plan;
+		if(current == null){
+			plan = current = compile();
+		}
+		return current;
+	}
+
+	/** <p><b><em> 按子类到父类的顺序遍历目标类的字段, 为每个可复制的字段找到源字段和复制方式 </b></em></p> */
+	private synchronized Plan compile(){
+		ClassMetadata sourceMetadata = ClassMetadata.forClass(sourceClass);
+		ClassMetadata targetMetadata = ClassMetadata.forClass(targetClass);
+		for(String sourceField : mappings.values()){
+			if(copyable(sourceMetadata.getField(sourceField)) == null){
+				throw new IllegalArgumentException("类 " + sourceClass.getName() + " 中找不到 " + sourceField + " 属性");
+			}
+		}
+		Set<String> names = new HashSet<String>();
+		List<Step> steps = new ArrayList<Step>();
+		for(Class<?> current = targetClass; current != null; current = current.getSuperclass()){
+			for(Field declared : current.getDeclaredFields()){
+				String name = declared.getName();
+				if(!names.add(name) || ignores.contains(name)){
+					continue;
+				}
+				boolean mapped = mappings.containsKey(name);
+				String sourceName = mapped ? mappings.get(name) : name;
+				Field source = copyable(sourceMetadata.getField(sourceName));
+				Field target = copyable(targetMetadata.getField(name));
+				if(source == null || target == null){
+					if(mapped){
+						throw new IllegalArgumentException(targetClass.getName() + "." + name + " 不能写入");
+					}
+					continue;
+				}
+				Converter<?, ?> converter = converters.get(name);
+				int kind = converter != null ? CUSTOM : kindOf(source.getType(), target.getType());
+				if(kind >= 0){
+					steps.add(new Step(kind, source, target, converter));
+				}else if(mapped){
+					throw new IllegalArgumentException(sourceClass.getName() + "." + sourceName + " 不能复制到 " + targetClass.getName() + "." + name);
+				}
+			}
+		}
+		for(String targetField : mappings.keySet()){
+			if(!names.contains(targetField)){
+				throw new IllegalArgumentException("类 " + targetClass.getName() + " 中找不到 " + targetField + " 属性");
+			}
+		}
+		return new Plan(targetClass, steps.toArray(new Step[steps.size()]));
+	}
+
+	/** <p><b><em> 可复制的字段原样返回, 空、静态、final 或编译器生成的字段返回 null </b></em></p> */
+	private static Field copyable(Field field){
+		if(field == null || field.isSynthetic()){
+			return null;
+		}
+		int modifiers = field.getModifiers();
+		return Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers) ? null : field;
+	}
+
+	/** <p><b><em> 源类型到目标类型的复制方式, 无法转换返回 -1 </b></em></p> */
+	private static int kindOf(Class<?> source, Class<?> target){
+		if(target.isPrimitive() && source.isPrimitive()){
+			int kind = primitiveKind(source, target);
+			if(kind >= 0){
+				return kind;
+			}
+		}
+		if(!target.isPrimitive() && target.isAssignableFrom(source)){
+			return REFERENCE;
+		}
+		Class<?> boxedSource = Primitives.box(source);
+		Class<?> boxedTarget = Primitives.box(target);
+		if(boxedSource == boxedTarget){
+			return CONVERT;
+		}
+		if(Number.class.isAssignableFrom(boxedSource) && isConvertibleNumber(boxedTarget)){
+			return CONVERT;
+		}
+		if(target == String.class){
+			return TO_STRING;
+		}
+		return -1;
+	}
+
+	/** <p><b><em> 相同或可以拓宽的基本类型按基本类型读写, 否则返回 -1 </b></em></p> */
+	private static int primitiveKind(Class<?> source, Class<?> target){
+		boolean integral = source == int.class || source == short.class || source == byte.class || source == char.class;
+		if(target == source){
+			return target == int.class ? INT : target == long.class ? LONG : target == double.class ? DOUBLE
+				: target == float.class ? FLOAT : target == short.class ? SHORT : target == byte.class ? BYTE
+				: target == char.class ? CHAR : BOOLEAN;
+		}
+		if(target == long.class && integral){
+			return LONG;
+		}
+		if(target == int.class && integral){
+			return INT;
+		}
+		if(target == double.class && source != boolean.class){
+			return DOUBLE;
+		}
+		if(target == float.class && (integral || source == long.class)){
+			return FLOAT;
+		}
+		if(target == short.class && source == byte.class){
+			return SHORT;
+		}
+		return -1;
+	}
+
+	/** <p><b><em> PropertyAccessor.convert 能够转换到的数值类型 </b></em></p> */
+	private static boolean isConvertibleNumber(Class<?> type){
+		return type == Integer.class || type == Long.class || type == Double.class
+			|| type == Float.class || type == Short.class || type == Byte.class;
+	}
+
+	/**
+	 * <p> ##################################################### </p>
+	 * <p> @描述：字段值的转换器 </p>
+	 * <pre>
+	 * >>> <b><em>e.g.</em></b>
+	 * >>> BeanCopier.of(User.class, UserDTO.class).map("createDate", "createDate", new Converter&lt;Date, String&gt;() {
+	 * >>>     public String convert(Date value) {
+	 * >>>         return value == null ? null : DateUtil.getSimpleDateFormat(DateUtil.DATE_PATTERN).format(value);
+	 * >>>     }
+	 * >>> });
+	 * </pre>
+	 * <p> @作者：fancy </p>
+	 * <p> @邮箱：fancores@163.com </p>
+	 * <p> @日期：2014-07-05 </p>
+	 * <br> ##################################################### </p>
+	 */
+	public interface Converter<F, R> {
+
+		/** <p><b><em> 将源字段的值转换为目标字段的值, 基本类型的目标字段不接受 null </b></em></p> */
+		R convert(F value);
+	}
+
+	/**
+	 * <p> ##################################################### </p>
+	 * <p> @描述：编译后的复制计划, 构建后只读 </p>
+	 * <p> @作者：fancy </p>
+	 * <p> @邮箱：fancores@163.com </p>
+	 * <p> @日期：2014-07-05 </p>
+	 * <br> ##################################################### </p>
+	 */
+	private static final class Plan {
+
+		/** <p><b><em> 目标类的无参构造方法的创建器, 不存在时为 null, 只能复制到已有的目标对象 </b></em></p> */
+		private final Instantiator<?> instantiator;
+		private final Class<?> targetClass;
+		private final Step[] steps;
+
+		Plan(Class<?> targetClass, Step[] steps){
+			this.targetClass = targetClass;
+			this.steps = steps;
+			this.instantiator = ClassMetadata.forClass(targetClass).getInstantiator();
+		}
+
+		/** <p><b><em> 创建目标对象 </b></em></p> */
+		@SuppressWarnings("unchecked")
+		<T> T newTarget(){
+			if(instantiator == null){
+				throw new IllegalArgumentException("类 " + targetClass.getName() + " 中找不到无参构造方法");
+			}
+			return (T) instantiator.newInstance();
+		}
+
+		/** <p><b><em> 按计划逐个字段复制 </b></em></p> */
+		void copy(Object source, Object target){
+			try {
+				for(Step step : steps){
+					step.copy(source, target);
+				}
+			} catch (IllegalAccessException e) {
+				throw new ExecutetimeException(e);
+			}
+		}
+	}
+
+	/**
+	 * <p> ##################################################### </p>
+	 * <p> @描述：一个字段的复制步骤 </p>
+	 * <p> @作者：fancy </p>
+	 * <p> @邮箱：fancores@163.com </p>
+	 * <p> @日期：2014-07-05 </p>
+	 * <br> ##################################################### </p>
+	 */
+	private static final class Step {
+
+		private final int kind;
+		private final Field source;
+		private final Field target;
+		/** <p><b><em> 目标字段是否为基本类型, 基本类型的字段不能写入 null </b></em></p> */
+		private final boolean primitive;
+		@SuppressWarnings("rawtypes")
+		private final Converter converter;
+
+		Step(int kind, Field source, Field target, Converter<?, ?> converter){
+			this.kind = kind;
+			this.source = source;
+			this.target = target;
+			this.primitive = target.getType().isPrimitive();
+			this.converter = converter;
+		}
+
+		@SuppressWarnings("unchecked")
+		void copy(Object from, Object to) throws IllegalAccessException {
+			switch (kind) {
+				case INT :
+					target.setInt(to, source.getInt(from));
+					break;
+				case LONG :
+					target.setLong(to, source.getLong(from));
+					break;
+				case DOUBLE :
+					target.setDouble(to, source.getDouble(from));
+					break;
+				case FLOAT :
+					target.setFloat(to, source.getFloat(from));
+					break;
+				case SHORT :
+					target.setShort(to, source.getShort(from));
+					break;
+				case BYTE :
+					target.setByte(to, source.getByte(from));
+					break;
+				case CHAR :
+					target.setChar(to, source.getChar(from));
+					break;
+				case BOOLEAN :
+					target.setBoolean(to, source.getBoolean(from));
+					break;
+				case REFERENCE :
+					target.set(to, source.get(from));
+					break;
+				case CONVERT :
+					set(to, PropertyAccessor.convert(source.get(from), target.getType()));
+					break;
+				case TO_STRING :
+					Object value = source.get(from);
+					target.set(to, value == null ? null : String.valueOf(value));
+					break;
+				default :
+					set(to, converter.convert(source.get(from)));
+			}
+		}
+
+		/** <p><b><em> 写入目标字段, 基本类型的目标字段遇到 null 时保持不变 </b></em></p> */
+		private void set(Object to, Object value) throws IllegalAccessException {
+			if(value != null || !primitive){
+				target.set(to, value);
+			}
+		}
+	}
+}
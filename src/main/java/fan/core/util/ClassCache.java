@@ -0,0 +1,119 @@
+package fan.core.util;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+/**
+ * <p> ##################################################### </p>
+ * <p> @描述：以类为键的并发缓存。键以弱引用持有, 不阻止类加载器被卸载 </p>
+ * <p> 缓存的值通常会强引用到键所对应的类（如 Field、Method 对象）,
+ *     因此对于不是由当前类加载器（或其父加载器）加载的类, 值以软引用持有, 以免间接钉住类加载器 </p>
+ * <p> @作者：fancy </p>
+ * <p> @邮箱：fancores@163.com </p>
+ * <p> @日期：2014-06-03 </p>
+ * <br> ##################################################### </p>
+ */
+abstract class ClassCache<V> {
+
+	/** <p><b><em> 缓存条目 </b></em></p> */
+	private final ConcurrentHashMap<Object, Object> cache = new ConcurrentHashMap<Object, Object>(64, 0.75f, 16);
+	/** <p><b><em> 已被回收的键的引用队列 </b></em></p> */
+	private final ReferenceQueue<Class<?>> queue = new ReferenceQueue<Class<?>>();
+
+	/** <p><b><em> 计算类所对应的值, 每个类只在首次访问（或软引用值被回收后）时计算 </b></em></p> */
+	protected abstract V compute(Class<?> clazz);
+
+	/** <p><b><em> 获取类所对应的值, 命中缓存时只需一次散列查找 </b></em></p> */
+	@SuppressWarnings("unchecked")
+	public V get(Class<?> clazz){
+		Object value = cache.get(new LookupKey(clazz));
+		if(value != null){
+			if(!(value instanceof Reference)){
+				return (V) value;
+			}
+			V referent = ((Reference<V>) value).get();
+			if(referent != null){
+				return referent;
+			}
+		}
+		expungeStaleEntries();
+		V computed = compute(clazz);
+		cache.put(new WeakKey(clazz, queue), isCacheSafe(clazz) ? computed : new SoftReference<V>(computed));
+		return computed;
+	}
+
+	/** <p><b><em> 清除类已被回收的条目 </b></em></p> */
+	private void expungeStaleEntries(){
+		Reference<? extends Class<?>> reference;
+		while((reference = queue.poll()) != null){
+			cache.remove(reference);
+		}
+	}
+
+	/** <p><b><em> 判断类是否由当前类加载器或其父加载器加载, 这样的类不会先于缓存被卸载 </b></em></p> */
+	private static boolean isCacheSafe(Class<?> clazz){
+		ClassLoader target = clazz.getClassLoader();
+		if(target == null){
+			return true;
+		}
+		for(ClassLoader loader = ClassCache.class.getClassLoader(); loader != null; loader = loader.getParent()){
+			if(loader == target){
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/** <p><b><em> 存入缓存的弱引用键, 以类的对象标识判等 </b></em></p> */
+	private static final class WeakKey extends WeakReference<Class<?>> {
+
+		private final int hash;
+
+		WeakKey(Class<?> clazz, ReferenceQueue<Class<?>> queue){
+			super(clazz, queue);
+			hash = System.identityHashCode(clazz);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if(other == this){
+				return true;
+			}
+			if(other instanceof LookupKey){
+				return ((LookupKey) other).clazz == get();
+			}
+			if(other instanceof WeakKey){
+				Class<?> clazz = get();
+				return clazz != null && clazz == ((WeakKey) other).get();
+			}
+			return false;
+		}
+	}
+
+	/** <p><b><em> 仅用于查找的强引用键, 不存入缓存 </b></em></p> */
+	private static final class LookupKey {
+
+		private final Class<?> clazz;
+
+		LookupKey(Class<?> clazz){
+			this.clazz = clazz;
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(clazz);
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			return other instanceof WeakKey && ((WeakKey) other).get() == clazz;
+		}
+	}
+}
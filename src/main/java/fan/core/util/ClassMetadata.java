@@ -0,0 +1,438 @@
+package fan.core.util;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+/**
+ * <p> ##################################################### </p>
+ * <p> @描述：类的反射元数据。缓存已解析的可访问字段、方法, 以及查找不到的结果 </p>
+ * <p> 类层次中的全部字段、方法各展开一次为只读的快照, 之后反复获取不再调用 getDeclaredFields、getDeclaredMethods </p>
+ * <p> @作者：fancy </p>
+ * <p> @邮箱：fancores@163.com </p>
+ * <p> @日期：2014-06-03 </p>
+ * <br> ##################################################### </p>
+ */
+final class ClassMetadata {
+
+	/** <p><b><em> 查找不到的标记, ConcurrentHashMap 不允许存入 null </b></em></p> */
+	private static final Object NOT_FOUND = new Object();
+	/** <p><b><em> 空参数类型 </b></em></p> */
+	private static final Class<?>[] NO_TYPES = new Class<?>[0];
+
+	/** <p><b><em> 每个类的元数据 </b></em></p> */
+	private static final ClassCache<ClassMetadata> CACHE = new ClassCache<ClassMetadata>() {
+
+		@Override
+		protected ClassMetadata compute(Class<?> clazz) {
+			return new ClassMetadata(clazz);
+		}
+
+	};
+
+	/** <p><b><em> 元数据所属的类 </b></em></p> */
+	private final Class<?> clazz;
+	/** <p><b><em> 字段名称 -> 可访问的字段 </b></em></p> */
+	private final ConcurrentHashMap<String, Object> fields = new ConcurrentHashMap<String, Object>();
+	/** <p><b><em> 方法签名 -> 可访问的方法 </b></em></p> */
+	private final ConcurrentHashMap<MethodKey, Object> methods = new ConcurrentHashMap<MethodKey, Object>();
+	/** <p><b><em> 方法名称和实参类型 -> 重载解析选中的方法 </b></em></p> */
+	private final ConcurrentHashMap<MethodKey, Object> overloads = new ConcurrentHashMap<MethodKey, Object>();
+	/** <p><b><em> 构造方法的参数类型 -> 对象创建器 </b></em></p> */
+	private final ConcurrentHashMap<MethodKey, Object> instantiators = new ConcurrentHashMap<MethodKey, Object>();
+	/** <p><b><em> 不经构造方法创建对象的创建器, 首次使用时创建 </b></em></p> */
+	private volatile Object allocator;
+	/** <p><b><em> 按下标读写字段属性的访问接口, 首次使用时构建 </b></em></p> */
+	private volatile BeanAccess beanAccess;
+	/** <p><b><em> 以 . 分隔的字段路径 -> 嵌套字段的访问器 </b></em></p> */
+	private final ConcurrentHashMap<String, Object> pathAccessors = new ConcurrentHashMap<String, Object>();
+	/** <p><b><em> 属性名称 -> 基于 getter / setter 方法的访问器 </b></em></p> */
+	private final ConcurrentHashMap<String, Object> propertyAccessors = new ConcurrentHashMap<String, Object>();
+	/** <p><b><em> 类层次中的全部字段, 首次使用时展开 </b></em></p> */
+	private volatile Members<Field> declaredFields;
+	/** <p><b><em> 未被子类同名字段遮蔽的字段, 首次使用时展开 </b></em></p> */
+	private volatile Members<Field> visibleFields;
+	/** <p><b><em> 类层次中的全部方法, 首次使用时展开 </b></em></p> */
+	private volatile Members<Method> declaredMethods;
+	/** <p><b><em> 未被子类同签名方法覆盖的方法, 首次使用时展开 </b></em></p> */
+	private volatile Members<Method> visibleMethods;
+
+	private ClassMetadata(Class<?> clazz){
+		this.clazz = clazz;
+	}
+
+	/** <p><b><em> 获取类的元数据 </b></em></p> */
+	static ClassMetadata forClass(Class<?> clazz){
+		return CACHE.get(clazz);
+	}
+
+	/** <p><b><em> 获取与参数同名的可访问的字段对象, 查找不到返回 null </b></em></p> */
+	Field getField(String name){
+		Object field = fields.get(name);
+		if(field == null){
+			field = resolveField(name);
+			fields.put(name, field == null ? NOT_FOUND : field);
+			return (Field) field;
+		}
+		return field == NOT_FOUND ? null : (Field) field;
+	}
+
+	/** <p><b><em> 获取与参数同名同参数类型的可访问的方法对象, 查找不到返回 null </b></em></p> */
+	Method getMethod(String name, Class<?>... types){
+		MethodKey key = new MethodKey(name, types == null ? NO_TYPES : types);
+		Object method = methods.get(key);
+		if(method == null){
+			method = resolveMethod(name, key.types);
+			methods.put(key.copy(), method == null ? NOT_FOUND : method);
+			return (Method) method;
+		}
+		return method == NOT_FOUND ? null : (Method) method;
+	}
+
+	/**
+	 * <p><b><em> 按实参类型解析重载, 获取可以调用的方法, 查找不到返回 null </b></em></p>
+	 * <p> 实参类型为 null 表示实参为空。解析结果按方法名称和实参类型缓存 </p>
+	 */
+	Method findMethod(String name, Class<?>... types){
+		MethodKey key = new MethodKey(name, types == null ? NO_TYPES : types);
+		Object method = overloads.get(key);
+		if(method == null){
+			method = resolveOverload(name, key.types);
+			overloads.put(key.copy(), method == null ? NOT_FOUND : method);
+			return (Method) method;
+		}
+		return method == NOT_FOUND ? null : (Method) method;
+	}
+
+	/** <p><b><em> 获取与参数类型相同的构造方法的对象创建器, 查找不到返回 null </b></em></p> */
+	Instantiator<?> getInstantiator(Class<?>... types){
+		MethodKey key = new MethodKey("<init>", types == null ? NO_TYPES : types);
+		Object instantiator = instantiators.get(key);
+		if(instantiator == null){
+			Constructor<?> constructor = resolveConstructor(key.types);
+			instantiator = constructor == null ? null : Instantiator.ofConstructor(constructor);
+			instantiators.put(key.copy(), instantiator == null ? NOT_FOUND : instantiator);
+			return (Instantiator<?>) instantiator;
+		}
+		return instantiator == NOT_FOUND ? null : (Instantiator<?>) instantiator;
+	}
+
+	/** <p><b><em> 获取不经构造方法创建对象的创建器, 类不能实例化或 Unsafe 不可用时返回 null </b></em></p> */
+	Instantiator<?> getAllocator(){
+		Object current = allocator;
+		if(current == null){
+			current = Instantiator.ofAllocation(clazz);
+			allocator = current = current == null ? NOT_FOUND : current;
+		}
+		return current == NOT_FOUND ? null : (Instantiator<?>) current;
+	}
+
+	/** <p><b><em> 获取按下标读写字段属性的访问接口 </b></em></p> */
+	BeanAccess getBeanAccess(){
+		BeanAccess access = beanAccess;
+		if(access == null){
+			beanAccess = access = new FieldBeanAccess(clazz);
+		}
+		return access;
+	}
+
+	/** <p><b><em> 获取类层次中的全部字段, 按子类到父类、字段声明的顺序排列, 并将字段设置为可访问 </b></em></p> */
+	Members<Field> getDeclaredFields(){
+		Members<Field> members = declaredFields;
+		if(members == null){
+			List<Field> fields = new ArrayList<Field>();
+			for(Class<?> current = clazz; current != null; current = current.getSuperclass()){
+				for(Field field : current.getDeclaredFields()){
+					try {
+						field.setAccessible(true);
+					} catch (RuntimeException e) { /* 不允许设置为可访问的成员保留在快照中 */ }
+					fields.add(field);
+				}
+			}
+			declaredFields = members = new Members<Field>(fields.toArray(new Field[fields.size()]));
+		}
+		return members;
+	}
+
+	/** <p><b><em> 获取类层次中未被子类同名字段遮蔽的字段 </b></em></p> */
+	Members<Field> getVisibleFields(){
+		Members<Field> members = visibleFields;
+		if(members == null){
+			List<Field> fields = new ArrayList<Field>();
+			Set<String> names = new HashSet<String>();
+			for(Field field : getDeclaredFields().array){
+				if(names.add(field.getName())){
+					fields.add(field);
+				}
+			}
+			visibleFields = members = new Members<Field>(fields.toArray(new Field[fields.size()]));
+		}
+		return members;
+	}
+
+	/** <p><b><em> 获取类层次中的全部方法, 按子类到父类的顺序排列, 并将方法设置为可访问 </b></em></p> */
+	Members<Method> getDeclaredMethods(){
+		Members<Method> members = declaredMethods;
+		if(members == null){
+			List<Method> methods = new ArrayList<Method>();
+			for(Class<?> current = clazz; current != null; current = current.getSuperclass()){
+				for(Method method : current.getDeclaredMethods()){
+					try {
+						method.setAccessible(true);
+					} catch (RuntimeException e) { /* 不允许设置为可访问的成员保留在快照中 */ }
+					methods.add(method);
+				}
+			}
+			declaredMethods = members = new Members<Method>(methods.toArray(new Method[methods.size()]));
+		}
+		return members;
+	}
+
+	/** <p><b><em> 获取类层次中未被子类同名同参数类型的方法覆盖的方法 </b></em></p> */
+	Members<Method> getVisibleMethods(){
+		Members<Method> members = visibleMethods;
+		if(members == null){
+			List<Method> methods = new ArrayList<Method>();
+			Set<MethodKey> signatures = new HashSet<MethodKey>();
+			for(Method method : getDeclaredMethods().array){
+				if(signatures.add(new MethodKey(method.getName(), method.getParameterTypes()))){
+					methods.add(method);
+				}
+			}
+			visibleMethods = members = new Members<Method>(methods.toArray(new Method[methods.size()]));
+		}
+		return members;
+	}
+
+	/** <p><b><em> 获取基于字段的访问器, 支持以 . 分隔的嵌套字段路径, 字段不存在返回 null </b></em></p> */
+	PropertyAccessor getFieldAccessor(String name){
+		if(name.indexOf('.') >= 0){
+			return getPathAccessor(name);
+		}
+		BeanAccess access = getBeanAccess();
+		int index = access.indexOf(name);
+		return index < 0 ? null : access.getAccessor(index);
+	}
+
+	/** <p><b><em> 获取嵌套字段路径的访问器, 路径中任一字段不存在返回 null </b></em></p> */
+	private PropertyAccessor getPathAccessor(String path){
+		Object accessor = pathAccessors.get(path);
+		if(accessor == null){
+			String[] names = path.split("\\.");
+			PropertyAccessor[] chain = new PropertyAccessor[names.length];
+			Class<?> current = clazz;
+			for(int i = 0; i < names.length && current != null; i++){
+				chain[i] = names[i].length() == 0 ? null : forClass(current).getFieldAccessor(names[i]);
+				current = chain[i] == null ? null : chain[i].getType();
+			}
+			accessor = current == null ? null : PropertyAccessor.ofPath(path, chain);
+			pathAccessors.put(path, accessor == null ? NOT_FOUND : accessor);
+			return (PropertyAccessor) accessor;
+		}
+		return accessor == NOT_FOUND ? null : (PropertyAccessor) accessor;
+	}
+
+	/**
+	 * <p><b><em> 获取基于 getter / setter 方法的访问器, 两个方法都不存在返回 null </b></em></p>
+	 * <p> 属性类型取字段的类型, 字段不存在时取 getter 方法的返回类型 </p>
+	 */
+	PropertyAccessor getPropertyAccessor(String name){
+		Object accessor = propertyAccessors.get(name);
+		if(accessor == null){
+			accessor = resolvePropertyAccessor(name);
+			propertyAccessors.put(name, accessor == null ? NOT_FOUND : accessor);
+			return (PropertyAccessor) accessor;
+		}
+		return accessor == NOT_FOUND ? null : (PropertyAccessor) accessor;
+	}
+
+	/** <p><b><em> 解析属性的 getter / setter 方法 </b></em></p> */
+	private PropertyAccessor resolvePropertyAccessor(String name){
+		String suffix = StringUtil.toFirstLetterUpperCase(name);
+		Method getter = getMethod("get" + suffix);
+		Field field = getField(name);
+		Class<?> type = field != null ? field.getType() : getter != null ? getter.getReturnType() : null;
+		Method setter = type == null ? null : getMethod("set" + suffix, type);
+		if(getter == null && setter == null){
+			return null;
+		}
+		return PropertyAccessor.ofMethods(name, type, getter, setter);
+	}
+
+	/** <p><b><em> 查找与参数类型相同的构造方法, 并设置为可访问, 查找不到不抛出异常 </b></em></p> */
+	private Constructor<?> resolveConstructor(Class<?>[] types){
+		for(Constructor<?> constructor : clazz.getDeclaredConstructors()){
+			if(Arrays.equals(constructor.getParameterTypes(), types)){
+				try {
+					constructor.setAccessible(true);
+				} catch (RuntimeException e) { /* 不允许设置为可访问时, 仍可调用公有的构造方法 */ }
+				return constructor;
+			}
+		}
+		return null;
+	}
+
+	/** <p><b><em> 从当前类开始回溯父类查找字段, 在类层次的字段快照中按顺序查找, 查找不到不抛出异常 </b></em></p> */
+	private Field resolveField(String name){
+		for(Field field : getDeclaredFields().array){
+			if(field.getName().equals(name)){
+				return field;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * <p><b><em> 从当前类开始回溯父类查找方法, 在类层次的方法快照中按顺序查找, 查找不到不抛出异常 </b></em></p>
+	 * <p> 同一个类中有协变返回类型的桥接方法时, 与 getDeclaredMethod 一样选择非桥接的方法 </p>
+	 */
+	private Method resolveMethod(String name, Class<?>[] types){
+		Method bridge = null;
+		for(Method method : getDeclaredMethods().array){
+			if(bridge != null && method.getDeclaringClass() != bridge.getDeclaringClass()){
+				break;
+			}
+			if(method.getName().equals(name) && Arrays.equals(method.getParameterTypes(), types)){
+				if(!method.isBridge()){
+					return method;
+				}
+				bridge = method;
+			}
+		}
+		return bridge;
+	}
+
+	/**
+	 * <p><b><em> 在未被覆盖的方法中选出可以接受实参的最具体的方法, 与 JLS 15.12.2 的前两个阶段一致 </b></em></p>
+	 * <p> 先只按子类型和基本类型拓宽匹配实参, 没有可用的方法时才允许装箱、拆箱, 如 Integer 实参优先匹配 f(Integer) 而不是 f(int)。
+	 *     每个形参都是另一方法同一位置形参的子类型时更具体; 没有唯一最具体的方法时（如空实参同时匹配 String 和 Integer 形参）任选其中之一。
+	 *     不解析可变参数, 忽略编译器生成的桥接方法 </p>
+	 */
+	private Method resolveOverload(String name, Class<?>[] types){
+		Method method = resolveOverload(name, types, false);
+		return method != null ? method : resolveOverload(name, types, true);
+	}
+
+	/** <p><b><em> 在一个阶段中选出最具体的方法, boxing 为 true 时实参可以经装箱、拆箱传给形参 </b></em></p> */
+	private Method resolveOverload(String name, Class<?>[] types, boolean boxing){
+		Method best = null;
+		Class<?>[] bestParameters = null;
+		for(Method candidate : getVisibleMethods().array){
+			if(candidate.isBridge() || !candidate.getName().equals(name)){
+				continue;
+			}
+			Class<?>[] parameters = candidate.getParameterTypes();
+			if(parameters.length != types.length || !isApplicable(parameters, types, boxing)){
+				continue;
+			}
+			if(best == null || (isMoreSpecific(parameters, bestParameters) && !isMoreSpecific(bestParameters, parameters))){
+				best = candidate;
+				bestParameters = parameters;
+			}
+		}
+		return best;
+	}
+
+	/** <p><b><em> 每个实参类型都能传给同一位置的形参, 空实参只能传给引用类型的形参 </b></em></p> */
+	private static boolean isApplicable(Class<?>[] parameters, Class<?>[] types, boolean boxing){
+		for(int i = 0; i < parameters.length; i++){
+			boolean applicable;
+			if(boxing){
+				applicable = Primitives.isAssignable(parameters[i], types[i]);
+			}else {
+				applicable = types[i] == null ? !parameters[i].isPrimitive() : Primitives.isSubtype(types[i], parameters[i]);
+			}
+			if(!applicable){
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/** <p><b><em> 每个形参都是另一方法同一位置形参的子类型 </b></em></p> */
+	private static boolean isMoreSpecific(Class<?>[] parameters, Class<?>[] others){
+		for(int i = 0; i < parameters.length; i++){
+			if(!Primitives.isSubtype(parameters[i], others[i])){
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * <p> ##################################################### </p>
+	 * <p> @描述：字段或方法的只读快照, 数组、列表和名称列表共用同一组成员, 构建后不再修改 </p>
+	 * <p> @作者：fancy </p>
+	 * <p> @邮箱：fancores@163.com </p>
+	 * <p> @日期：2014-07-06 </p>
+	 * <br> ##################################################### </p>
+	 */
+	static final class Members<M extends Member> {
+
+		/** <p><b><em> 成员数组, 共享给调用方, 不能修改 </b></em></p> */
+		final M[] array;
+		/** <p><b><em> 成员数组的不可变列表 </b></em></p> */
+		final List<M> list;
+		/** <p><b><em> 成员名称的不可变列表, 与成员同一下标 </b></em></p> */
+		final List<String> names;
+
+		Members(M[] array){
+			this.array = array;
+			this.list = ImmutableCollections.listOf(array);
+			String[] names = new String[array.length];
+			for(int i = 0; i < array.length; i++){
+				names[i] = array[i].getName();
+			}
+			this.names = ImmutableCollections.listOf(names);
+		}
+	}
+
+	/**
+	 * <p> ##################################################### </p>
+	 * <p> @描述：方法签名, 由方法名称和参数类型组成 </p>
+	 * <p> @作者：fancy </p>
+	 * <p> @邮箱：fancores@163.com </p>
+	 * <p> @日期：2014-06-03 </p>
+	 * <br> ##################################################### </p>
+	 */
+	private static final class MethodKey {
+
+		private final String name;
+		private final Class<?>[] types;
+		private final int hash;
+
+		MethodKey(String name, Class<?>[] types){
+			this.name = name;
+			this.types = types;
+			this.hash = name.hashCode() * 31 + Arrays.hashCode(types);
+		}
+
+		/** <p><b><em> 复制参数类型数组, 防止调用方修改存入缓存的键 </b></em></p> */
+		MethodKey copy(){
+			return new MethodKey(name, types.length == 0 ? types : types.clone());
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if(other == this){
+				return true;
+			}
+			if(!(other instanceof MethodKey)){
+				return false;
+			}
+			MethodKey key = (MethodKey) other;
+			return hash == key.hash && name.equals(key.name) && Arrays.equals(types, key.types);
+		}
+	}
+}
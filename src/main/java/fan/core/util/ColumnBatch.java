@@ -0,0 +1,302 @@
+package fan.core.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+/**
+ * <p> ##################################################### </p>
+ * <p> @描述：实体集合的列式投影。每个关键字的值按行依次存放在一个连续的基本类型数组中 </p>
+ * <p> 整数类型、字符类型和日期类型（毫秒数）的列存放在 long[] 中, 其余数值类型的列存放在 double[] 中, 其它类型的列存放在 Object[] 中。
+ *     基本类型的列不会有空值, 包装类型和嵌套字段路径的列另以 boolean[] 记录空值, 空值所在的行取 0 </p>
+ * <p> 取得的列是内部数组本身, 不复制, 不应修改 </p>
+ * <pre>
+ * >>> <b><em>e.g.</em></b>
+ * >>> ColumnBatch batch = Container.project(orderList, Order.class, "quantity", "price");
+ * >>> long[] quantity = batch.getLongs("quantity");
+ * >>> double[] price = batch.getDoubles("price");
+ * >>> double amount = 0;
+ * >>> for(int i = 0; i &lt; batch.size(); i++){
+ * >>>     amount += quantity[i] * price[i];
+ * >>> }
+ * </pre>
+ * <p> @作者：fancy </p>
+ * <p> @邮箱：fancores@163.com </p>
+ * <p> @日期：2014-07-03 </p>
+ * <br> ##################################################### </p>
+ */
+public final class ColumnBatch {
+
+	/** <p><b><em> 行数 </b></em></p> */
+	private final int size;
+	/** <p><b><em> 关键字 </b></em></p> */
+	private final List<String> keys;
+	/** <p><b><em> 与关键字同一下标的列 </b></em></p> */
+	private final Column[] columns;
+
+	/** <p><b><em> 按行读取每个实体的全部关键字的值, 每个实体只访问一次 </b></em></p> */
+	ColumnBatch(Collection<?> source, PropertyAccessor[] accessors, String[] names){
+		this.size = source.size();
+		this.keys = Collections.unmodifiableList(Arrays.asList(names.clone()));
+		this.columns = new Column[accessors.length];
+		for(int c = 0; c < columns.length; c++){
+			columns[c] = new Column(accessors[c], isPrimitive(accessors[c], names[c]), size);
+		}
+		int row = 0;
+		for(Object entity : source){
+			if(row == size){
+				break;
+			}
+			for(Column column : columns){
+				column.extract(row, entity);
+			}
+			row++;
+		}
+	}
+
+	/** <p><b><em> 行数 </b></em></p> */
+	public int size(){
+		return size;
+	}
+
+	/** <p><b><em> 全部关键字, 不可修改 </b></em></p> */
+	public List<String> getKeys(){
+		return keys;
+	}
+
+	/** <p><b><em> 列的存放类型 </b></em></p> */
+	public ColumnType getColumnType(String key){
+		return column(key).columnType;
+	}
+
+	/** <p><b><em> 整数类型、字符类型或日期类型的列 </b></em></p> */
+	public long[] getLongs(String key){
+		Column column = column(key);
+		if(column.columnType != ColumnType.LONG){
+			throw new IllegalArgumentException(key + " is a " + column.columnType + " column.");
+		}
+		return column.longs;
+	}
+
+	/** <p><b><em> 小数类型的列。long[] 存放的列转换为新的 double[] 返回 </b></em></p> */
+	public double[] getDoubles(String key){
+		Column column = column(key);
+		if(column.columnType == ColumnType.DOUBLE){
+			return column.doubles;
+		}
+		if(column.columnType == ColumnType.LONG){
+			double[] doubles = new double[size];
+			for(int i = 0; i < size; i++){
+				doubles[i] = column.longs[i];
+			}
+			return doubles;
+		}
+		throw new IllegalArgumentException(key + " is a " + column.columnType + " column.");
+	}
+
+	/** <p><b><em> 非数值类型的列 </b></em></p> */
+	public Object[] getObjects(String key){
+		Column column = column(key);
+		if(column.columnType != ColumnType.OBJECT){
+			throw new IllegalArgumentException(key + " is a " + column.columnType + " column.");
+		}
+		return column.objects;
+	}
+
+	/** <p><b><em> 列的空值标记, 基本类型的列没有空值, 返回 null </b></em></p> */
+	public boolean[] getNulls(String key){
+		return column(key).nulls;
+	}
+
+	/** <p><b><em> 列在某一行的值是否为空 </b></em></p> */
+	public boolean isNull(String key, int row){
+		Column column = column(key);
+		if(row < 0 || row >= size){
+			throw new IndexOutOfBoundsException("Row: " + row + ", Size: " + size);
+		}
+		return column.nulls != null && column.nulls[row];
+	}
+
+	@Override
+	public String toString() {
+		return "ColumnBatch(" + size + " rows, " + keys + ")";
+	}
+
+	/** <p><b><em> 关键字所对应的列 </b></em></p> */
+	private Column column(String key){
+		int index = keys.indexOf(key);
+		if(index < 0){
+			throw new IllegalArgumentException("Unknown column: " + key);
+		}
+		return columns[index];
+	}
+
+	/** <p><b><em> 投影为 long 列, 数值按 Number.longValue 转换, 日期取毫秒数, 空值取 0 </b></em></p> */
+	static long[] longColumn(Collection<?> source, PropertyAccessor accessor, String key){
+		boolean primitive = isPrimitive(accessor, key);
+		long[] column = new long[source.size()];
+		int row = 0;
+		for(Object entity : source){
+			if(row == column.length){
+				break;
+			}
+			if(primitive){
+				column[row++] = accessor.getLong(entity);
+				continue;
+			}
+			Object value = accessor.get(entity);
+			column[row++] = value == null ? 0 : value instanceof Date ? ((Date) value).getTime() : toNumber(accessor, value).longValue();
+		}
+		return column;
+	}
+
+	/** <p><b><em> 投影为 int 列, 数值按 Number.intValue 转换, 空值取 0 </b></em></p> */
+	static int[] intColumn(Collection<?> source, PropertyAccessor accessor, String key){
+		boolean primitive = isPrimitive(accessor, key);
+		int[] column = new int[source.size()];
+		int row = 0;
+		for(Object entity : source){
+			if(row == column.length){
+				break;
+			}
+			if(primitive){
+				column[row++] = accessor.getInt(entity);
+				continue;
+			}
+			Object value = accessor.get(entity);
+			column[row++] = value == null ? 0 : toNumber(accessor, value).intValue();
+		}
+		return column;
+	}
+
+	/** <p><b><em> 投影为 double 列, 数值按 Number.doubleValue 转换, 空值取 0 </b></em></p> */
+	static double[] doubleColumn(Collection<?> source, PropertyAccessor accessor, String key){
+		boolean primitive = isPrimitive(accessor, key);
+		double[] column = new double[source.size()];
+		int row = 0;
+		for(Object entity : source){
+			if(row == column.length){
+				break;
+			}
+			if(primitive){
+				column[row++] = accessor.getDouble(entity);
+				continue;
+			}
+			Object value = accessor.get(entity);
+			column[row++] = value == null ? 0 : toNumber(accessor, value).doubleValue();
+		}
+		return column;
+	}
+
+	/** <p><b><em> 关键字是否直接是基本类型的字段。嵌套字段路径的中间对象可能为空, 不按基本类型读取 </b></em></p> */
+	private static boolean isPrimitive(PropertyAccessor accessor, String key){
+		return key.indexOf('.') < 0 && accessor.getType().isPrimitive();
+	}
+
+	/** <p><b><em> 将属性的值视为数值, 字符类型取其编码 </b></em></p> */
+	private static Number toNumber(PropertyAccessor accessor, Object value){
+		if(value instanceof Number){
+			return (Number) value;
+		}
+		if(value instanceof Character){
+			return Integer.valueOf(((Character) value).charValue());
+		}
+		throw new IllegalArgumentException(accessor.getName() + " 的值 " + value + " 不是数值类型");
+	}
+
+	/**
+	 * <p> ##################################################### </p>
+	 * <p> @描述：列的存放类型 </p>
+	 * <p> @作者：fancy </p>
+	 * <p> @邮箱：fancores@163.com </p>
+	 * <p> @日期：2014-07-03 </p>
+	 * <br> ##################################################### </p>
+	 */
+	public enum ColumnType {
+
+		/** <p><b><em> 整数类型、字符类型、日期类型, 存放在 long[] 中 </b></em></p> */
+		LONG,
+		/** <p><b><em> 其余数值类型, 存放在 double[] 中 </b></em></p> */
+		DOUBLE,
+		/** <p><b><em> 其它类型, 存放在 Object[] 中 </b></em></p> */
+		OBJECT;
+
+		/** <p><b><em> 属性类型所对应的存放类型 </b></em></p> */
+		static ColumnType valueOf(Class<?> type){
+			if(type == long.class || type == int.class || type == short.class || type == byte.class || type == char.class
+				|| type == Long.class || type == Integer.class || type == Short.class || type == Byte.class || type == Character.class
+				|| Date.class.isAssignableFrom(type)){
+				return LONG;
+			}
+			if(type == double.class || type == float.class || Number.class.isAssignableFrom(type)){
+				return DOUBLE;
+			}
+			return OBJECT;
+		}
+	}
+
+	/**
+	 * <p> ##################################################### </p>
+	 * <p> @描述：一个关键字的列 </p>
+	 * <p> @作者：fancy </p>
+	 * <p> @邮箱：fancores@163.com </p>
+	 * <p> @日期：2014-07-03 </p>
+	 * <br> ##################################################### </p>
+	 */
+	private static final class Column {
+
+		private final PropertyAccessor accessor;
+		private final ColumnType columnType;
+		/** <p><b><em> 基本类型且不是嵌套字段路径时为 true, 读取时不装箱 </b></em></p> */
+		private final boolean primitive;
+		private long[] longs;
+		private double[] doubles;
+		private Object[] objects;
+		private boolean[] nulls;
+
+		Column(PropertyAccessor accessor, boolean primitive, int size){
+			this.accessor = accessor;
+			this.columnType = ColumnType.valueOf(accessor.getType());
+			this.primitive = primitive;
+			switch (columnType) {
+				case LONG :
+					longs = new long[size];
+					break;
+				case DOUBLE :
+					doubles = new double[size];
+					break;
+				default :
+					objects = new Object[size];
+			}
+			nulls = primitive ? null : new boolean[size];
+		}
+
+		/** <p><b><em> 读取一个实体的值, 存放到行所对应的位置 </b></em></p> */
+		void extract(int row, Object entity){
+			if(primitive && columnType != ColumnType.OBJECT){
+				if(columnType == ColumnType.LONG){
+					longs[row] = accessor.getLong(entity);
+				}else {
+					doubles[row] = accessor.getDouble(entity);
+				}
+				return;
+			}
+			Object value = accessor.get(entity);
+			if(nulls != null && value == null){
+				nulls[row] = true;
+				return;
+			}
+			switch (columnType) {
+				case LONG :
+					longs[row] = value instanceof Date ? ((Date) value).getTime() : toNumber(accessor, value).longValue();
+					break;
+				case DOUBLE :
+					doubles[row] = ((Number) value).doubleValue();
+					break;
+				default :
+					objects[row] = value;
+			}
+		}
+	}
+}
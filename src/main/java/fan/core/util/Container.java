@@ -2,15 +2,22 @@ package fan.core.util;
 
 import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Array;
-import java.math.BigDecimal;
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.ListIterator;
+import java.util.Locale;
 import java.util.Map;
+import java.util.RandomAccess;
 import java.util.Set;
 import fan.core.util.Container.SimpleComparator.SortKey;
 /**
@@ -23,6 +30,11 @@ import fan.core.util.Container.SimpleComparator.SortKey;
  */
 public class Container {
 	
+	/** <p><b><em> 并行排序的默认阈值, 元素数量少于此值时按顺序排序 </b></em></p> */
+	static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 13;
+	/** <p><b><em> 元素数量未知时取前 k 个元素的堆的初始容量 </b></em></p> */
+	private static final int TOP_K_INITIAL_CAPACITY = 16;
+	
 	private Container(){
 		
 	}
@@ -94,7 +106,9 @@ public class Container {
 	 * </pre>
 	 */
 	public static <T> Set<T> asSet(T... object){
-		return new HashSet<T>(Arrays.asList(object));
+		Set<T> set = newSetWithExpectedSize(object.length);
+		Collections.addAll(set, object);
+		return set;
 	}
 	
 	/**
@@ -111,7 +125,9 @@ public class Container {
 		if(collection instanceof Set){
 			return (Set<T>)collection;
 		}
-		return new HashSet<T>(collection);
+		Set<T> set = newSetWithExpectedSize(collection.size());
+		set.addAll(collection);
+		return set;
 	}
 	
 	/**
@@ -139,7 +155,9 @@ public class Container {
 		if(collection instanceof List){
 			return (List<T>)collection;
 		}
-		return new ArrayList<T>(collection);
+		List<T> list = newList(collection.size());
+		list.addAll(collection);
+		return list;
 	}
 	
 	/**
@@ -170,6 +188,132 @@ public class Container {
 		return new ArrayList<V>(map.values());
 	}
 	
+	/**
+	 * <p><b><em> 将参数转换为一个不可变的 Set 集合, 按参数的顺序遍历, 重复的元素只保留第一个 </b></em></p>
+	 * <p> 元素存放在数组中, 没有逐个元素的节点对象。元素较少时按顺序比较查找, 较多时以开放寻址的下标表查找。
+	 *     可以不加同步地在线程间共享, 修改方法抛出 UnsupportedOperationException </p>
+	 * <pre>
+	 * >>> Set&lt;String&gt; personSet = Container.immutableSetOf("fan", "cai", "yan");
+	 * >>> Testing.printObject(personSet);
+	 * </pre>
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> Set<T> immutableSetOf(T... object){
+		return ImmutableCollections.setOf(object.clone());
+	}
+	
+	/**
+	 * <p><b><em> 创建一个空的不可变 Map 容器 </b></em></p>
+	 * <pre>
+	 * >>> Map&lt;String, String&gt; map = Container.immutableMapOf();
+	 * >>> Testing.printObject(map);
+	 * </pre>
+	 */
+	public static <K, V> Map<K, V> immutableMapOf(){
+		return ImmutableCollections.mapOf(new Object[0], new Object[0]);
+	}
+	
+	/**
+	 * <p><b><em> 以参数中的键值对创建一个不可变的 Map 容器 </b></em></p>
+	 * <pre>
+	 * >>> Map&lt;String, String&gt; map = Container.immutableMapOf("fan", "male");
+	 * >>> Testing.printObject(map);
+	 * </pre>
+	 */
+	public static <K, V> Map<K, V> immutableMapOf(K k1, V v1){
+		return ImmutableCollections.mapOf(new Object[]{ k1 }, new Object[]{ v1 });
+	}
+	
+	/**
+	 * <p><b><em> 以参数中的键值对创建一个不可变的 Map 容器, 按参数的顺序遍历, 重复的键取最后一个值 </b></em></p>
+	 * <pre>
+	 * >>> Map&lt;String, String&gt; map = Container.immutableMapOf("fan", "male", "cai", "female");
+	 * >>> Testing.printObject(map);
+	 * </pre>
+	 */
+	public static <K, V> Map<K, V> immutableMapOf(K k1, V v1, K k2, V v2){
+		return ImmutableCollections.mapOf(new Object[]{ k1, k2 }, new Object[]{ v1, v2 });
+	}
+	
+	/**
+	 * <p><b><em> 以参数中的键值对创建一个不可变的 Map 容器, 按参数的顺序遍历, 重复的键取最后一个值 </b></em></p>
+	 * <pre>
+	 * >>> Map&lt;String, String&gt; map = Container.immutableMapOf("fan", "male", "cai", "female", "yan", "female");
+	 * >>> Testing.printObject(map);
+	 * </pre>
+	 */
+	public static <K, V> Map<K, V> immutableMapOf(K k1, V v1, K k2, V v2, K k3, V v3){
+		return ImmutableCollections.mapOf(new Object[]{ k1, k2, k3 }, new Object[]{ v1, v2, v3 });
+	}
+	
+	/**
+	 * <p><b><em> 将 List 容器冻结为一个不可变的 List 副本, 参数已是冻结的容器时直接返回 </b></em></p>
+	 * <pre>
+	 * >>> List&lt;String&gt; personList = Container.freeze(userDao.findNames());
+	 * >>> Testing.printObject(personList);
+	 * </pre>
+	 */
+	public static <T> List<T> freeze(List<T> list){
+		if(list instanceof ImmutableCollections.ImmutableList){
+			return list;
+		}
+		return ImmutableCollections.listOf(list.toArray());
+	}
+	
+	/**
+	 * <p><b><em> 将 Set 容器冻结为一个不可变的 Set 副本, 按参数的遍历顺序遍历, 参数已是冻结的容器时直接返回 </b></em></p>
+	 * <pre>
+	 * >>> Set&lt;String&gt; personSet = Container.freeze(new HashSet&lt;String&gt;(names));
+	 * >>> Testing.printObject(personSet);
+	 * </pre>
+	 */
+	public static <T> Set<T> freeze(Set<T> set){
+		if(set instanceof ImmutableCollections.ImmutableSet){
+			return set;
+		}
+		return ImmutableCollections.setOf(set.toArray());
+	}
+	
+	/**
+	 * <p><b><em> 将容器冻结为一个不可变的副本。Set 集合冻结为 Set, 其余容器冻结为 List </b></em></p>
+	 * <pre>
+	 * >>> Collection&lt;String&gt; names = Container.freeze(userMap.values());
+	 * >>> Testing.printObject(names);
+	 * </pre>
+	 */
+	public static <T> Collection<T> freeze(Collection<T> collection){
+		if(collection instanceof Set){
+			return freeze((Set<T>) collection);
+		}
+		if(collection instanceof List){
+			return freeze((List<T>) collection);
+		}
+		return ImmutableCollections.listOf(collection.toArray());
+	}
+	
+	/**
+	 * <p><b><em> 将 Map 容器冻结为一个不可变的 Map 副本, 按参数的遍历顺序遍历, 参数已是冻结的容器时直接返回 </b></em></p>
+	 * <p> 键和值分别存放在两个数组中, 没有 Entry 对象, 遍历时才创建 Entry </p>
+	 * <pre>
+	 * >>> Map&lt;String, Config&gt; configs = Container.freeze(configDao.loadAll());
+	 * >>> Testing.printObject(configs);
+	 * </pre>
+	 */
+	public static <K, V> Map<K, V> freeze(Map<K, V> map){
+		if(map instanceof ImmutableCollections.ImmutableMap){
+			return map;
+		}
+		Object[] entries = map.entrySet().toArray();
+		Object[] keys = new Object[entries.length];
+		Object[] values = new Object[entries.length];
+		for(int i = 0; i < entries.length; i++){
+			Map.Entry<?, ?> entry = (Map.Entry<?, ?>) entries[i];
+			keys[i] = entry.getKey();
+			values[i] = entry.getValue();
+		}
+		return ImmutableCollections.mapOf(keys, values);
+	}
+	
 	/**
 	 * <p><b><em> 创建一个 List 容器 </b></em></p>
 	 * <pre>
@@ -216,6 +360,18 @@ public class Container {
 		return new HashSet<T>(initialCapacity, ((Double)loadFactor).floatValue());
 	}
 	
+	/**
+	 * <p><b><em> 创建一个 Set 容器, 能容纳 expectedSize 个元素而不扩容 </b></em></p>
+	 * <p> 初始容量按加载因子 0.75 由预期的元素数量计算, 取不小于 expectedSize / 0.75 的 2 的幂 </p>
+	 * <pre>
+	 * >>> Set&lt;String&gt; set = Container.newSetWithExpectedSize(100000);
+	 * >>> Testing.printObject(set);
+	 * </pre>
+	 */
+	public static <T> Set<T> newSetWithExpectedSize(int expectedSize){
+		return new HashSet<T>(HashCommon.tableSize(expectedSize, HashCommon.DEFAULT_LOAD_FACTOR), HashCommon.DEFAULT_LOAD_FACTOR);
+	}
+	
 	/**
 	 * <p><b><em> 创建一个 Map 容器。默认初始化容量为 16, 加载因子为 0.75 </b></em></p>
 	 * <p> 当容器存储的条目数量 >= 初始容量 * 加载因子, 容器将进行扩容操作 </p>
@@ -240,8 +396,136 @@ public class Container {
 		return new HashMap<K, V>(initialCapacity, ((Double)loadFactor).floatValue());
 	}
 	
+	/**
+	 * <p><b><em> 创建一个 Map 容器, 能容纳 expectedSize 个条目而不扩容 </b></em></p>
+	 * <p> 初始容量按加载因子 0.75 由预期的条目数量计算, 取不小于 expectedSize / 0.75 的 2 的幂 </p>
+	 * <pre>
+	 * >>> Map&lt;Long, User&gt; map = Container.newMapWithExpectedSize(100000);
+	 * >>> Testing.printObject(map);
+	 * </pre>
+	 */
+	public static <K, V> Map<K, V> newMapWithExpectedSize(int expectedSize){
+		return new HashMap<K, V>(HashCommon.tableSize(expectedSize, HashCommon.DEFAULT_LOAD_FACTOR), HashCommon.DEFAULT_LOAD_FACTOR);
+	}
+	
+	/**
+	 * <p><b><em> 创建一个 int 元素的动态数组。元素不装箱, 每个元素只占 4 字节 </b></em></p>
+	 * <pre>
+	 * >>> IntArrayList list = Container.newIntList();
+	 * >>> Testing.printObject(list.toArray());
+	 * </pre>
+	 */
+	public static IntArrayList newIntList(){
+		return new IntArrayList();
+	}
+	
+	/**
+	 * <p><b><em> 创建一个 int 元素的动态数组, 并指定容器初始容量 </b></em></p>
+	 * <pre>
+	 * >>> IntArrayList list = Container.newIntList(100000);
+	 * >>> Testing.printObject(list.toArray());
+	 * </pre>
+	 */
+	public static IntArrayList newIntList(int size){
+		return new IntArrayList(size);
+	}
+	
+	/**
+	 * <p><b><em> 创建一个 long 元素的动态数组。元素不装箱, 每个元素只占 8 字节 </b></em></p>
+	 * <pre>
+	 * >>> LongArrayList list = Container.newLongList();
+	 * >>> Testing.printObject(list.toArray());
+	 * </pre>
+	 */
+	public static LongArrayList newLongList(){
+		return new LongArrayList();
+	}
+	
+	/**
+	 * <p><b><em> 创建一个 long 元素的动态数组, 并指定容器初始容量 </b></em></p>
+	 * <pre>
+	 * >>> LongArrayList list = Container.newLongList(100000);
+	 * >>> Testing.printObject(list.toArray());
+	 * </pre>
+	 */
+	public static LongArrayList newLongList(int size){
+		return new LongArrayList(size);
+	}
+	
+	/**
+	 * <p><b><em> 创建一个 long 元素的散列集合。开放寻址, 元素不装箱, 没有逐个元素的节点对象 </b></em></p>
+	 * <pre>
+	 * >>> LongHashSet set = Container.newLongSet();
+	 * >>> Testing.printObject(set.toArray());
+	 * </pre>
+	 */
+	public static LongHashSet newLongSet(){
+		return new LongHashSet();
+	}
+	
+	/**
+	 * <p><b><em> 创建一个 long 元素的散列集合, 能容纳 expectedSize 个元素而不扩容 </b></em></p>
+	 * <pre>
+	 * >>> LongHashSet set = Container.newLongSet(100000);
+	 * >>> Testing.printObject(set.toArray());
+	 * </pre>
+	 */
+	public static LongHashSet newLongSet(int expectedSize){
+		return new LongHashSet(expectedSize);
+	}
+	
+	/**
+	 * <p><b><em> 创建一个 long 键的散列表。开放寻址, 键不装箱, 没有逐个键值对的节点对象 </b></em></p>
+	 * <pre>
+	 * >>> LongObjectHashMap&lt;User&gt; map = Container.newLongMap();
+	 * >>> Testing.printObject(map.keys());
+	 * </pre>
+	 */
+	public static <V> LongObjectHashMap<V> newLongMap(){
+		return new LongObjectHashMap<V>();
+	}
+	
+	/**
+	 * <p><b><em> 创建一个 long 键的散列表, 能容纳 expectedSize 个键值对而不扩容 </b></em></p>
+	 * <pre>
+	 * >>> LongObjectHashMap&lt;User&gt; map = Container.newLongMap(100000);
+	 * >>> Testing.printObject(map.keys());
+	 * </pre>
+	 */
+	public static <V> LongObjectHashMap<V> newLongMap(int expectedSize){
+		return new LongObjectHashMap<V>(expectedSize);
+	}
+	
+	/**
+	 * <p><b><em> 创建一个堆外的 long 键 long 值散列表, 能容纳 expectedSize 个键值对而不扩容 </b></em></p>
+	 * <p> 键值对存放在堆外内存中, 不在垃圾回收器的扫描范围内。使用完毕必须调用 close 方法释放堆外内存 </p>
+	 * <pre>
+	 * >>> OffHeapLongLongMap map = Container.newOffHeapLongLongMap(200000000L);
+	 * >>> . . . . . . 
+	 * >>> map.close();
+	 * </pre>
+	 */
+	public static OffHeapLongLongMap newOffHeapLongLongMap(long expectedSize){
+		return new OffHeapLongLongMap(expectedSize);
+	}
+	
+	/**
+	 * <p><b><em> 创建一个堆外的 long 键定长 byte[] 值散列表, 能容纳 expectedSize 个键值对而不扩容 </b></em></p>
+	 * <p> 键值对存放在堆外内存中, 不在垃圾回收器的扫描范围内。使用完毕必须调用 close 方法释放堆外内存 </p>
+	 * <pre>
+	 * >>> OffHeapLongBytesMap map = Container.newOffHeapLongBytesMap(100000000L, 16);
+	 * >>> . . . . . . 
+	 * >>> map.close();
+	 * </pre>
+	 */
+	public static OffHeapLongBytesMap newOffHeapLongBytesMap(long expectedSize, int valueWidth){
+		return new OffHeapLongBytesMap(expectedSize, valueWidth);
+	}
+	
 	/**
 	 * <p><b><em> 自定义关键字升序排序集合, 关键字支持常用的数值类型、字符类型（支持中文）、日期类型 </b></em></p>
+	 * <p> 关键字为空的元素排在最后。排序是稳定的, 关键字相等的元素保持原有的先后顺序 </p>
+	 * <p> List 集合就地排序, 其余集合清空后按排好的顺序重新添加。只需要排好序的结果时可用 sorted, 不修改集合 </p>
 	 * <pre>
 	 * >>> <b><em>Definition Class :</em></b>
 	 * >>> User(int id, String name, Date createDate)
@@ -284,11 +568,54 @@ public class Container {
 	 * </pre>
 	 */
 	public static <T> void sortByAsc(Collection<T> collection, Class<T> entityClass, String key){
-		sortBySortKey(collection, entityClass, key, SortKey.ASC);
+		sortBySortKey(collection, entityClass, key, SortKey.ASC, NullOrder.LAST, null, Integer.MAX_VALUE);
+	}
+	
+	/**
+	 * <p><b><em> 自定义关键字升序排序集合, 并指定关键字为空的元素排在前面还是后面 </b></em></p>
+	 * <pre>
+	 * >>> <b><em>Definition Class :</em></b>
+	 * >>> User(int id, String name, Integer level)
+	 * >>> <b><em>e.g.</em></b>
+	 * >>> List&lt;User&gt; userList = new ArrayList&lt;User&gt;();
+	 * >>> userList.add(new User(2, "叶水燕", 3));
+	 * >>> userList.add(new User(1, "杨忠杰", null));
+	 * >>> userList.add(new User(4, "何国群", 1));
+	 * >>> Container.sortByAsc(userList, User.class, "level", NullOrder.FIRST);
+	 * >>> Testing.printObject(userList);
+	 * >>> <b><em>output look like :</em></b>
+	 * >>> 1    杨忠杰    null
+	 * >>> 4    何国群    1
+	 * >>> 2    叶水燕    3
+	 * </pre>
+	 */
+	public static <T> void sortByAsc(Collection<T> collection, Class<T> entityClass, String key, NullOrder nullOrder){
+		sortBySortKey(collection, entityClass, key, SortKey.ASC, nullOrder, null, Integer.MAX_VALUE);
+	}
+	
+	/**
+	 * <p><b><em> 自定义关键字升序排序集合, 字符类型的关键字按语言环境的排序规则排序 </b></em></p>
+	 * <p> 不指定语言环境时按 GBK 编码排序, 只能近似拼音顺序, 且不支持 GBK 以外的字符 </p>
+	 * <pre>
+	 * >>> <b><em>e.g.</em></b>
+	 * >>> Container.sortByAsc(userList, User.class, "name", Locale.CHINA);
+	 * >>> Testing.printObject(userList);
+	 * >>> <b><em>output look like :</em></b>
+	 * >>> 4    何国群    2014-05-15
+	 * >>> 0    杨晓婷    2014-05-14
+	 * >>> 1    杨忠杰    2014-05-13
+	 * >>> 2    叶水燕    2014-05-12
+	 * >>> 3    钟婷婷    2014-05-11
+	 * </pre>
+	 */
+	public static <T> void sortByAsc(Collection<T> collection, Class<T> entityClass, String key, Locale locale){
+		sortBySortKey(collection, entityClass, key, SortKey.ASC, NullOrder.LAST, locale, Integer.MAX_VALUE);
 	}
 	
 	/**
 	 * <p><b><em> 自定义关键字降序排序集合, 关键字支持常用的数值类型、字符类型（支持中文）、日期类型 </b></em></p>
+	 * <p> 关键字为空的元素排在最后。排序是稳定的, 关键字相等的元素保持原有的先后顺序 </p>
+	 * <p> List 集合就地排序, 其余集合清空后按排好的顺序重新添加。只需要排好序的结果时可用 sorted, 不修改集合 </p>
 	 * <pre>
 	 * >>> <b><em>Definition Class :</em></b>
 	 * >>> User(int id, String name, Date createDate)
@@ -331,117 +658,786 @@ public class Container {
 	 * </pre>
 	 */
 	public static <T> void sortByDesc(Collection<T> collection, Class<T> entityClass, String key){
-		sortBySortKey(collection, entityClass, key, SortKey.DESC);
+		sortBySortKey(collection, entityClass, key, SortKey.DESC, NullOrder.LAST, null, Integer.MAX_VALUE);
 	}
 	
-	/** <p><b><em> 根据排序关键字排序集合 </b></em></p> */
+	/**
+	 * <p><b><em> 自定义关键字降序排序集合, 并指定关键字为空的元素排在前面还是后面 </b></em></p>
+	 * <pre>
+	 * >>> <b><em>Definition Class :</em></b>
+	 * >>> User(int id, String name, Integer level)
+	 * >>> <b><em>e.g.</em></b>
+	 * >>> List&lt;User&gt; userList = new ArrayList&lt;User&gt;();
+	 * >>> userList.add(new User(2, "叶水燕", 3));
+	 * >>> userList.add(new User(1, "杨忠杰", null));
+	 * >>> userList.add(new User(4, "何国群", 1));
+	 * >>> Container.sortByDesc(userList, User.class, "level", NullOrder.LAST);
+	 * >>> Testing.printObject(userList);
+	 * >>> <b><em>output look like :</em></b>
+	 * >>> 2    叶水燕    3
+	 * >>> 4    何国群    1
+	 * >>> 1    杨忠杰    null
+	 * </pre>
+	 */
+	public static <T> void sortByDesc(Collection<T> collection, Class<T> entityClass, String key, NullOrder nullOrder){
+		sortBySortKey(collection, entityClass, key, SortKey.DESC, nullOrder, null, Integer.MAX_VALUE);
+	}
+	
+	/**
+	 * <p><b><em> 自定义关键字降序排序集合, 字符类型的关键字按语言环境的排序规则排序 </b></em></p>
+	 * <p> 不指定语言环境时按 GBK 编码排序, 只能近似拼音顺序, 且不支持 GBK 以外的字符 </p>
+	 * <pre>
+	 * >>> <b><em>e.g.</em></b>
+	 * >>> Container.sortByDesc(userList, User.class, "name", Locale.CHINA);
+	 * >>> Testing.printObject(userList);
+	 * >>> <b><em>output look like :</em></b>
+	 * >>> 3    钟婷婷    2014-05-11
+	 * >>> 2    叶水燕    2014-05-12
+	 * >>> 1    杨忠杰    2014-05-13
+	 * >>> 0    杨晓婷    2014-05-14
+	 * >>> 4    何国群    2014-05-15
+	 * </pre>
+	 */
+	public static <T> void sortByDesc(Collection<T> collection, Class<T> entityClass, String key, Locale locale){
+		sortBySortKey(collection, entityClass, key, SortKey.DESC, NullOrder.LAST, locale, Integer.MAX_VALUE);
+	}
+	
+	/**
+	 * <p><b><em> 自定义关键字并行升序排序集合, 元素数量不少于 8192 时关键字的提取与排序分摊到所有处理器上执行 </b></em></p>
+	 * <p> 排序结果与 sortByAsc 完全相同 </p>
+	 * <pre>
+	 * >>> <b><em>e.g.</em></b>
+	 * >>> Container.parallelSortByAsc(userList, User.class, "id");
+	 * </pre>
+	 */
+	public static <T> void parallelSortByAsc(Collection<T> collection, Class<T> entityClass, String key){
+		sortBySortKey(collection, entityClass, key, SortKey.ASC, NullOrder.LAST, null, DEFAULT_PARALLEL_THRESHOLD);
+	}
+	
+	/**
+	 * <p><b><em> 自定义关键字并行升序排序集合, 元素数量少于 threshold 时按顺序执行 </b></em></p>
+	 * <pre>
+	 * >>> <b><em>e.g.</em></b>
+	 * >>> Container.parallelSortByAsc(userList, User.class, "id", 100000);
+	 * </pre>
+	 */
+	public static <T> void parallelSortByAsc(Collection<T> collection, Class<T> entityClass, String key, int threshold){
+		sortBySortKey(collection, entityClass, key, SortKey.ASC, NullOrder.LAST, null, threshold);
+	}
+	
+	/**
+	 * <p><b><em> 自定义关键字并行降序排序集合, 元素数量不少于 8192 时关键字的提取与排序分摊到所有处理器上执行 </b></em></p>
+	 * <p> 排序结果与 sortByDesc 完全相同 </p>
+	 * <pre>
+	 * >>> <b><em>e.g.</em></b>
+	 * >>> Container.parallelSortByDesc(userList, User.class, "id");
+	 * </pre>
+	 */
+	public static <T> void parallelSortByDesc(Collection<T> collection, Class<T> entityClass, String key){
+		sortBySortKey(collection, entityClass, key, SortKey.DESC, NullOrder.LAST, null, DEFAULT_PARALLEL_THRESHOLD);
+	}
+	
+	/**
+	 * <p><b><em> 自定义关键字并行降序排序集合, 元素数量少于 threshold 时按顺序执行 </b></em></p>
+	 * <pre>
+	 * >>> <b><em>e.g.</em></b>
+	 * >>> Container.parallelSortByDesc(userList, User.class, "id", 100000);
+	 * </pre>
+	 */
+	public static <T> void parallelSortByDesc(Collection<T> collection, Class<T> entityClass, String key, int threshold){
+		sortBySortKey(collection, entityClass, key, SortKey.DESC, NullOrder.LAST, null, threshold);
+	}
+	
+	/**
+	 * <p><b><em> 按多关键字排序规则排序集合, 所有关键字一次排序完成 </b></em></p>
+	 * <pre>
+	 * >>> <b><em>Definition Class :</em></b>
+	 * >>> User(int id, String name, Date createDate, Address address)
+	 * >>> <b><em>e.g.</em></b>
+	 * >>> Container.sortBy(userList, SortSpec.of(User.class).asc("address.city").desc("createDate").asc("id"));
+	 * >>> Testing.printObject(userList);
+	 * >>> <b><em>output look like :</em></b>
+	 * >>> 2    叶水燕    2014-05-12    广州
+	 * >>> 3    钟婷婷    2014-05-11    广州
+	 * >>> 4    何国群    2014-05-15    深圳
+	 * >>> 0    杨晓婷    2014-05-14    深圳
+	 * >>> 1    杨忠杰    2014-05-13    深圳
+	 * </pre>
+	 */
+	public static <T> void sortBy(Collection<T> collection, SortSpec<T> spec){
+		sortBySortSpec(collection, spec, Integer.MAX_VALUE);
+	}
+	
+	/**
+	 * <p><b><em> 按多关键字排序规则并行排序集合, 元素数量少于 8192 时按顺序执行 </b></em></p>
+	 * <pre>
+	 * >>> <b><em>e.g.</em></b>
+	 * >>> Container.parallelSortBy(userList, SortSpec.of(User.class).asc("address.city").desc("createDate"));
+	 * </pre>
+	 */
+	public static <T> void parallelSortBy(Collection<T> collection, SortSpec<T> spec){
+		sortBySortSpec(collection, spec, DEFAULT_PARALLEL_THRESHOLD);
+	}
+	
+	/**
+	 * <p><b><em> 按多关键字排序规则并行排序集合, 元素数量少于 threshold 时按顺序执行 </b></em></p>
+	 * <pre>
+	 * >>> <b><em>e.g.</em></b>
+	 * >>> Container.parallelSortBy(userList, SortSpec.of(User.class).asc("address.city"), 100000);
+	 * </pre>
+	 */
+	public static <T> void parallelSortBy(Collection<T> collection, SortSpec<T> spec, int threshold){
+		sortBySortSpec(collection, spec, threshold);
+	}
+	
+	/**
+	 * <p><b><em> 按多关键字排序规则返回排好序的只读 List, 不修改集合 </b></em></p>
+	 * <p> 返回的 List 按下标访问排序时复制出的元素数组, 不再复制元素, 之后修改集合不影响返回的 List </p>
+	 * <pre>
+	 * >>> <b><em>e.g.</em></b>
+	 * >>> List&lt;User&gt; users = Container.sorted(userSet, SortSpec.of(User.class).desc("createDate"));
+	 * >>> Testing.printObject(users);
+	 * </pre>
+	 */
+	public static <T> List<T> sorted(Collection<T> collection, SortSpec<T> spec){
+		return sortedView(collection, spec, Integer.MAX_VALUE);
+	}
+	
+	/**
+	 * <p><b><em> 按多关键字排序规则并行排序, 返回排好序的只读 List, 不修改集合。元素数量少于 8192 时按顺序执行 </b></em></p>
+	 * <pre>
+	 * >>> <b><em>e.g.</em></b>
+	 * >>> List&lt;User&gt; users = Container.parallelSorted(userSet, SortSpec.of(User.class).asc("id"));
+	 * </pre>
+	 */
+	public static <T> List<T> parallelSorted(Collection<T> collection, SortSpec<T> spec){
+		return sortedView(collection, spec, DEFAULT_PARALLEL_THRESHOLD);
+	}
+	
+	/** <p><b><em> 按多关键字排序规则并行排序, 返回排好序的只读 List, 不修改集合。元素数量少于 threshold 时按顺序执行 </b></em></p> */
+	public static <T> List<T> parallelSorted(Collection<T> collection, SortSpec<T> spec, int threshold){
+		return sortedView(collection, spec, threshold);
+	}
+	
+	/**
+	 * <p><b><em> 按关键字升序取前 k 个元素, 不排序整个集合 </b></em></p>
+	 * <p> 以容量为 k 的堆筛选元素, 时间复杂度 O(n log k), 只保留 k 个元素的关键字。关键字相等时先出现的元素优先 </p>
+	 * <pre>
+	 * >>> <b><em>e.g.</em></b>
+	 * >>> List&lt;User&gt; earliest = Container.topKByAsc(userList, User.class, "createDate", 2);
+	 * >>> Testing.printObject(earliest);
+	 * >>> <b><em>output look like :</em></b>
+	 * >>> 3    钟婷婷    2014-05-11
+	 * >>> 2    叶水燕    2014-05-12
+	 * </pre>
+	 */
+	public static <T> List<T> topKByAsc(Iterable<T> source, Class<T> entityClass, String key, int k){
+		return topK(source, SortSpec.of(entityClass).asc(key), k);
+	}
+	
+	/**
+	 * <p><b><em> 按关键字降序取前 k 个元素, 不排序整个集合 </b></em></p>
+	 * <p> 以容量为 k 的堆筛选元素, 时间复杂度 O(n log k), 只保留 k 个元素的关键字。关键字相等时先出现的元素优先 </p>
+	 * <pre>
+	 * >>> <b><em>e.g.</em></b>
+	 * >>> List&lt;User&gt; latest = Container.topKByDesc(userList, User.class, "createDate", 2);
+	 * >>> Testing.printObject(latest);
+	 * >>> <b><em>output look like :</em></b>
+	 * >>> 4    何国群    2014-05-15
+	 * >>> 0    杨晓婷    2014-05-14
+	 * </pre>
+	 */
+	public static <T> List<T> topKByDesc(Iterable<T> source, Class<T> entityClass, String key, int k){
+		return topK(source, SortSpec.of(entityClass).desc(key), k);
+	}
+	
+	/**
+	 * <p><b><em> 按多关键字排序规则取前 k 个元素 </b></em></p>
+	 * <pre>
+	 * >>> <b><em>e.g.</em></b>
+	 * >>> List&lt;User&gt; top = Container.topK(userList, SortSpec.of(User.class).desc("score").asc("id"), 20);
+	 * </pre>
+	 */
+	public static <T> List<T> topK(Iterable<T> source, SortSpec<T> spec, int k){
+		return topK(source.iterator(), spec, k, source instanceof Collection ? ((Collection<?>) source).size() : -1);
+	}
+	
+	/**
+	 * <p><b><em> 按多关键字排序规则从迭代器中取前 k 个元素, 迭代器中的元素无需全部载入内存 </b></em></p>
+	 * <p> 堆的空间随已选元素的数量逐步扩大, 至多为 k 个元素, k 远大于元素数量时不预先分配 k 个元素的空间 </p>
+	 * <pre>
+	 * >>> <b><em>e.g.</em></b>
+	 * >>> Iterator&lt;User&gt; cursor = userDao.iterate();
+	 * >>> List&lt;User&gt; top = Container.topK(cursor, SortSpec.of(User.class).desc("createDate"), 20);
+	 * </pre>
+	 */
+	public static <T> List<T> topK(Iterator<T> source, SortSpec<T> spec, int k){
+		return topK(source, spec, k, -1);
+	}
+	
+	/** <p><b><em> 取前 k 个元素, expectedSize 为已知的元素数量, 未知时为 -1 </b></em></p> */
 	@SuppressWarnings("unchecked")
-	private static <T> void sortBySortKey(Collection<T> collection, Class<T> entityClass, String key, SortKey sortKey){
-		Object[] source = asArray(collection, entityClass);
-		SimpleComparator comparator = new SimpleComparator(entityClass, key, sortKey);
-		quicksort(source, 0, source.length - 1, comparator);
-		collection.clear();
-		collection.addAll((List<T>)asList(source));
+	private static <T> List<T> topK(Iterator<T> source, SortSpec<T> spec, int k, int expectedSize){
+		if(k <= 0){
+			return new ArrayList<T>(0);
+		}
+		/* 槽位 0 .. capacity 存放元素及其关键字, 堆满 k 个元素后多出的槽位 k 存放待比较的元素 */
+		int capacity = Math.min(k, expectedSize < 0 ? TOP_K_INITIAL_CAPACITY : expectedSize);
+		Object[] elements = new Object[capacity + 1];
+		SortSpec.CompoundComparator keys = spec.compile();
+		keys.allocate(capacity + 1);
+		/* 堆顶是已选元素中排序最靠后的元素 */
+		SequencedComparator comparator = new SequencedComparator(keys, new long[capacity + 1]);
+		int[] heap = new int[capacity];
+		int size = 0, spare = k;
+		for(long sequence = 0; source.hasNext(); sequence++){
+			T element = source.next();
+			if(size < k){
+				if(size == capacity){
+					/* 按两倍扩大, 不超过 k; 以 long 计算避免溢出, 另需一个槽位存放待比较的元素 */
+					long grown = Math.min(k, Math.max(TOP_K_INITIAL_CAPACITY, capacity * 2L));
+					if(grown + 1 > Integer.MAX_VALUE - 8){
+						throw new OutOfMemoryError("topK heap exceeds the maximum array size.");
+					}
+					capacity = (int) grown;
+					elements = Arrays.copyOf(elements, capacity + 1);
+					comparator.sequences = Arrays.copyOf(comparator.sequences, capacity + 1);
+					keys.resize(capacity + 1);
+					heap = Arrays.copyOf(heap, capacity);
+				}
+				elements[size] = element;
+				comparator.sequences[size] = sequence;
+				keys.extract(size, element);
+				heap[size] = size;
+				IndexSorter.siftUp(heap, size++, comparator);
+				continue;
+			}
+			keys.extract(spare, element);
+			if(keys.compare(spare, heap[0]) < 0){
+				elements[spare] = element;
+				comparator.sequences[spare] = sequence;
+				int evicted = heap[0];
+				heap[0] = spare;
+				spare = evicted;
+				elements[spare] = null;
+				IndexSorter.siftDown(heap, size, comparator);
+			}
+		}
+		int[] order = new int[size];
+		System.arraycopy(heap, 0, order, 0, size);
+		IndexSorter.sort(order, comparator);
+		List<T> result = new ArrayList<T>(size);
+		for(int slot : order){
+			result.add((T) elements[slot]);
+		}
+		return result;
+	}
+	
+	/**
+	 * <p> ##################################################### </p>
+	 * <p> @描述：先比较关键字, 关键字相等时先出现的元素优先的比较器 </p>
+	 * <p> @作者：fancy </p>
+	 * <p> @邮箱：fancores@163.com </p>
+	 * <p> @日期：2014-06-25 </p>
+	 * <br> ##################################################### </p>
+	 */
+	private static final class SequencedComparator implements IndexSorter.IndexComparator {
+
+		private final IndexSorter.IndexComparator keys;
+		/** <p><b><em> 各槽位的元素出现的序号, 堆扩大时替换为更大的数组 </b></em></p> */
+		long[] sequences;
+
+		SequencedComparator(IndexSorter.IndexComparator keys, long[] sequences){
+			this.keys = keys;
+			this.sequences = sequences;
+		}
+
+		@Override
+		public int compare(int i, int j) {
+			int result = keys.compare(i, j);
+			return result != 0 ? result : sequences[i] < sequences[j] ? -1 : (sequences[i] == sequences[j] ? 0 : 1);
+		}
+	}
+	
+	/**
+	 * <p><b><em> 按关键字的值将集合中的元素分组, 返回 关键字的值 -> 元素列表 </b></em></p>
+	 * <p> 关键字的访问器与排序共用同一份缓存, 支持以 . 分隔的嵌套字段路径。每个元素的关键字只读取一次,
+	 *     元素列表按分组的元素数量一次分配到位, 列表中的元素保持在集合中的先后顺序 </p>
+	 * <pre>
+	 * >>> <b><em>e.g.</em></b>
+	 * >>> Map&lt;Integer, List&lt;User&gt;&gt; users = Container.groupBy(userList, User.class, "deptId");
+	 * >>> Testing.printObject(users);
+	 * </pre>
+	 */
+	public static <T, K> Map<K, List<T>> groupBy(Collection<T> collection, Class<T> entityClass, String key){
+		return groupByKey(collection, entityClass, key, Integer.MAX_VALUE);
+	}
+	
+	/**
+	 * <p><b><em> 按关键字的值并行分组, 元素数量不少于 8192 时各处理器在局部散列表中分组, 最后合并 </b></em></p>
+	 * <p> 分组结果与 groupBy 完全相同 </p>
+	 * <pre>
+	 * >>> <b><em>e.g.</em></b>
+	 * >>> Map&lt;Integer, List&lt;User&gt;&gt; users = Container.parallelGroupBy(userList, User.class, "deptId");
+	 * </pre>
+	 */
+	public static <T, K> Map<K, List<T>> parallelGroupBy(Collection<T> collection, Class<T> entityClass, String key){
+		return groupByKey(collection, entityClass, key, DEFAULT_PARALLEL_THRESHOLD);
+	}
+	
+	/** <p><b><em> 按关键字的值并行分组, 元素数量少于 threshold 时按顺序分组 </b></em></p> */
+	public static <T, K> Map<K, List<T>> parallelGroupBy(Collection<T> collection, Class<T> entityClass, String key, int threshold){
+		return groupByKey(collection, entityClass, key, threshold);
+	}
+	
+	/**
+	 * <p><b><em> 按唯一的关键字的值索引集合中的元素, 返回 关键字的值 -> 元素 </b></em></p>
+	 * <p> 散列表按元素数量预先分配容量, 不会扩容。关键字的值重复时抛出 IllegalArgumentException </p>
+	 * <pre>
+	 * >>> <b><em>e.g.</em></b>
+	 * >>> Map&lt;Integer, User&gt; users = Container.indexBy(userList, User.class, "id");
+	 * >>> Testing.printObject(users.get(3));
+	 * </pre>
+	 */
+	public static <T, K> Map<K, T> indexBy(Collection<T> collection, Class<T> entityClass, String key){
+		return indexByKey(collection, entityClass, key, Integer.MAX_VALUE);
+	}
+	
+	/**
+	 * <p><b><em> 并行索引集合中的元素, 元素数量不少于 8192 时关键字的提取分摊到所有处理器上执行 </b></em></p>
+	 * <p> 各元素的关键字并行提取后, 按集合中的先后顺序存入散列表, 索引结果与 indexBy 完全相同 </p>
+	 * <pre>
+	 * >>> <b><em>e.g.</em></b>
+	 * >>> Map&lt;Integer, User&gt; users = Container.parallelIndexBy(userList, User.class, "id");
+	 * </pre>
+	 */
+	public static <T, K> Map<K, T> parallelIndexBy(Collection<T> collection, Class<T> entityClass, String key){
+		return indexByKey(collection, entityClass, key, DEFAULT_PARALLEL_THRESHOLD);
+	}
+	
+	/** <p><b><em> 并行索引集合中的元素, 元素数量少于 threshold 时按顺序索引 </b></em></p> */
+	public static <T, K> Map<K, T> parallelIndexBy(Collection<T> collection, Class<T> entityClass, String key, int threshold){
+		return indexByKey(collection, entityClass, key, threshold);
+	}
+	
+	/**
+	 * <p><b><em> 按关键字的值统计集合中的元素数量, 返回 关键字的值 -> 元素数量 </b></em></p>
+	 * <pre>
+	 * >>> <b><em>e.g.</em></b>
+	 * >>> Map&lt;Integer, Integer&gt; counts = Container.countBy(userList, User.class, "deptId");
+	 * >>> Testing.printObject(counts);
+	 * </pre>
+	 */
+	public static <T, K> Map<K, Integer> countBy(Collection<T> collection, Class<T> entityClass, String key){
+		return countByKey(collection, entityClass, key, Integer.MAX_VALUE);
+	}
+	
+	/**
+	 * <p><b><em> 按关键字的值并行统计, 元素数量不少于 8192 时各处理器在局部散列表中计数, 最后合并 </b></em></p>
+	 * <pre>
+	 * >>> <b><em>e.g.</em></b>
+	 * >>> Map&lt;Integer, Integer&gt; counts = Container.parallelCountBy(userList, User.class, "deptId");
+	 * </pre>
+	 */
+	public static <T, K> Map<K, Integer> parallelCountBy(Collection<T> collection, Class<T> entityClass, String key){
+		return countByKey(collection, entityClass, key, DEFAULT_PARALLEL_THRESHOLD);
+	}
+	
+	/** <p><b><em> 按关键字的值并行统计, 元素数量少于 threshold 时按顺序统计 </b></em></p> */
+	public static <T, K> Map<K, Integer> parallelCountBy(Collection<T> collection, Class<T> entityClass, String key, int threshold){
+		return countByKey(collection, entityClass, key, threshold);
+	}
+	
+	/**
+	 * <p><b><em> 将集合中的元素按关键字投影为 double 列, 下标与集合的迭代顺序一致 </b></em></p>
+	 * <p> 同一个访问器在循环中逐个读取, 基本类型的字段不装箱。数值按 Number.doubleValue 转换, 空值取 0 </p>
+	 * <pre>
+	 * >>> <b><em>e.g.</em></b>
+	 * >>> double[] prices = Container.projectToDouble(orderList, Order.class, "price");
+	 * </pre>
+	 */
+	public static <T> double[] projectToDouble(Collection<T> collection, Class<T> entityClass, String key){
+		return ColumnBatch.doubleColumn(collection, getKeyAccessor(entityClass, key), key);
+	}
+	
+	/** <p><b><em> 将集合中的元素按关键字投影为 long 列, 数值按 Number.longValue 转换, 日期取毫秒数, 空值取 0 </b></em></p> */
+	public static <T> long[] projectToLong(Collection<T> collection, Class<T> entityClass, String key){
+		return ColumnBatch.longColumn(collection, getKeyAccessor(entityClass, key), key);
 	}
 	
-	/** <p><b><em> 快速排序算法 </b></em></p> */
-	private static void quicksort(Object[] array, int low,int hight, SimpleComparator comparator){
-		if(low < hight){
-			int position = partition(array, low, hight, comparator);
-			quicksort(array, low, position - 1, comparator);
-			quicksort(array, position + 1, hight, comparator);
+	/** <p><b><em> 将集合中的元素按关键字投影为 int 列, 数值按 Number.intValue 转换, 空值取 0 </b></em></p> */
+	public static <T> int[] projectToInt(Collection<T> collection, Class<T> entityClass, String key){
+		return ColumnBatch.intColumn(collection, getKeyAccessor(entityClass, key), key);
+	}
+	
+	/**
+	 * <p><b><em> 将集合中的元素按多个关键字投影为列, 每个元素只遍历一次 </b></em></p>
+	 * <pre>
+	 * >>> <b><em>e.g.</em></b>
+	 * >>> ColumnBatch batch = Container.project(orderList, Order.class, "quantity", "price", "createTime");
+	 * >>> long[] quantity = batch.getLongs("quantity");
+	 * >>> double[] price = batch.getDoubles("price");
+	 * </pre>
+	 */
+	public static <T> ColumnBatch project(Collection<T> collection, Class<T> entityClass, String... keys){
+		PropertyAccessor[] accessors = new PropertyAccessor[keys.length];
+		for(int i = 0; i < keys.length; i++){
+			accessors[i] = getKeyAccessor(entityClass, keys[i]);
 		}
+		return new ColumnBatch(collection, accessors, keys);
 	}
+	
+	/** <p><b><em> 根据关键字分组 </b></em></p> */
+	@SuppressWarnings("unchecked")
+	private static <T, K> Map<K, List<T>> groupByKey(Collection<T> collection, Class<T> entityClass, String key, int parallelThreshold){
+		Object[] source = collection.toArray();
+		Grouping grouping = Grouping.of(source, getKeyAccessor(entityClass, key), partsFor(source.length, parallelThreshold));
+		List<List<T>> groups = new ArrayList<List<T>>(grouping.size());
+		for(int i = 0; i < grouping.size(); i++){
+			groups.add(new ArrayList<T>(grouping.counts[i]));
+		}
+		int[] groupOf = grouping.groupOf;
+		for(int i = 0; i < source.length; i++){
+			groups.get(groupOf[i]).add((T) source[i]);
+		}
+		Map<K, List<T>> result = newMapWithExpectedSize(groups.size());
+		for(int i = 0; i < groups.size(); i++){
+			result.put((K) grouping.keys[i], groups.get(i));
+		}
+		return result;
+	}
+	
+	/** <p><b><em> 根据唯一的关键字索引 </b></em></p> */
+	@SuppressWarnings("unchecked")
+	private static <T, K> Map<K, T> indexByKey(Collection<T> collection, Class<T> entityClass, final String key, int parallelThreshold){
+		final Object[] source = collection.toArray();
+		final PropertyAccessor accessor = getKeyAccessor(entityClass, key);
+		final Object[] values = new Object[source.length];
+		int parts = partsFor(source.length, parallelThreshold);
+		final int[] bounds = ParallelExecutor.split(source.length, parts);
+		ParallelExecutor.invokeAll(parts, new ParallelExecutor.Task() {
 
-	/** <p><b><em> 快速排序算法 </b></em></p> */
-	private static int partition(Object[] array, int low,int hight, SimpleComparator comparator){
-		Object key = array[low];
-		while(low < hight){
-			while(low < hight && comparator.compare(array[hight], key) >= 0){
-				hight--;
+			@Override
+			public void run(int part) {
+				for(int i = bounds[part]; i < bounds[part + 1]; i++){
+					values[i] = accessor.get(source[i]);
+				}
 			}
-			array[low] = array[hight];
-			while(low < hight && comparator.compare(array[low], key) <= 0){
-				low++;
+
+		});
+		Map<K, T> result = newMapWithExpectedSize(source.length);
+		for(int i = 0; i < source.length; i++){
+			result.put((K) values[i], (T) source[i]);
+			if(result.size() != i + 1){
+				throw new IllegalArgumentException("关键字 " + key + " 的值 " + values[i] + " 不唯一");
 			}
-			array[hight] = array[low];
 		}
-		array[low] = key;
-		return low;
+		return result;
+	}
+	
+	/** <p><b><em> 根据关键字统计 </b></em></p> */
+	@SuppressWarnings("unchecked")
+	private static <T, K> Map<K, Integer> countByKey(Collection<T> collection, Class<T> entityClass, String key, int parallelThreshold){
+		Object[] source = collection.toArray();
+		Grouping grouping = Grouping.of(source, getKeyAccessor(entityClass, key), partsFor(source.length, parallelThreshold));
+		Map<K, Integer> result = newMapWithExpectedSize(grouping.size());
+		for(int i = 0; i < grouping.size(); i++){
+			result.put((K) grouping.keys[i], Integer.valueOf(grouping.counts[i]));
+		}
+		return result;
+	}
+	
+	/** <p><b><em> 获取关键字的访问器, 与排序共用同一份缓存 </b></em></p> */
+	private static PropertyAccessor getKeyAccessor(Class<?> entityClass, String key){
+		try {
+			return Reflection.getFieldAccessor(entityClass, key);
+		} catch (NoSuchFieldException e) {
+			throw new SimpleComparator.UnsupportedException(e.getMessage());
+		}
+	}
+	
+	/** <p><b><em> 元素数量不少于阈值时按处理器数量分段并行执行, 否则只分一段 </b></em></p> */
+	static int partsFor(int size, int parallelThreshold){
+		return size < parallelThreshold || ParallelExecutor.PARALLELISM < 2 ? 1 : ParallelExecutor.PARALLELISM;
+	}
+	
+	/** <p><b><em> 根据排序关键字排序集合 </b></em></p> */
+	private static <T> void sortBySortKey(Collection<T> collection, Class<T> entityClass, String key, SortKey sortKey, NullOrder nullOrder, Locale locale, int parallelThreshold){
+		sortBySortSpec(collection, SortSpec.of(entityClass).add(key, sortKey, nullOrder).locale(locale), parallelThreshold);
+	}
+	
+	/**
+	 * <p><b><em> 根据排序规则排序集合 </b></em></p>
+	 * <p> List 集合通过 ListIterator.set 就地重排; 其余集合清空后按排好的顺序重新添加 </p>
+	 */
+	private static <T> void sortBySortSpec(Collection<T> collection, SortSpec<T> spec, int parallelThreshold){
+		List<T> sorted = sortedView(collection, spec, parallelThreshold);
+		if(!(collection instanceof List)){
+			collection.clear();
+			collection.addAll(sorted);
+			return;
+		}
+		ListIterator<T> iterator = ((List<T>) collection).listIterator();
+		for(int i = 0; i < sorted.size(); i++){
+			iterator.next();
+			iterator.set(sorted.get(i));
+		}
+	}
+	
+	/**
+	 * <p><b><em> 根据排序规则返回排好序的只读 List 视图, 不修改集合 </b></em></p>
+	 * <p> 每个元素的关键字只提取一次, 排序的是元素下标, 视图按下标顺序访问元素数组 </p>
+	 * <p> 排序是稳定的, 关键字相等的元素保持原有的先后顺序 </p>
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> List<T> sortedView(Collection<T> collection, SortSpec<T> spec, int parallelThreshold){
+		Object[] source = collection.toArray();
+		SortSpec.CompoundComparator comparator = spec.compile();
+		int[] order = IndexSorter.identity(source.length);
+		if(source.length < parallelThreshold || ParallelExecutor.PARALLELISM < 2){
+			comparator.extract(source);
+			IndexSorter.sort(order, comparator);
+		}else {
+			comparator.extract(source, ParallelExecutor.PARALLELISM);
+			IndexSorter.parallelSort(order, ParallelExecutor.PARALLELISM, comparator);
+		}
+		return new IndexedList<T>((T[]) source, order);
+	}
+	
+	/**
+	 * <p> ##################################################### </p>
+	 * <p> @描述：按下标顺序访问元素数组的只读 List 视图, 不复制元素 </p>
+	 * <p> @作者：fancy </p>
+	 * <p> @邮箱：fancores@163.com </p>
+	 * <p> @日期：2014-06-23 </p>
+	 * <br> ##################################################### </p>
+	 */
+	static final class IndexedList<T> extends AbstractList<T> implements RandomAccess {
+
+		private final T[] elements;
+		private final int[] order;
+
+		IndexedList(T[] elements, int[] order){
+			this.elements = elements;
+			this.order = order;
+		}
+
+		@Override
+		public T get(int index) {
+			return elements[order[index]];
+		}
+
+		@Override
+		public int size() {
+			return order.length;
+		}
 	}
 	
 	/**
 	 * <p> ##################################################### </p>
-	 * <p> @描述：比较器。提供 compare 方法比较两关键字的大小 </p>
+	 * <p> @描述：比较器。预先提取每个元素的关键字, 提供 compare 方法按下标比较两关键字的大小 </p>
+	 * <p> 整数类型、日期类型的关键字提取到 long[], 小数类型的关键字提取到 double[], 比较时不产生任何对象 </p>
+	 * <p> 字符类型的关键字预先转换为 GBK 编码的字节数组, 或按指定语言环境转换为 CollationKey </p>
 	 * <p> @作者：fancy </p>
 	 * <p> @邮箱：fancores@163.com </p>
 	 * <p> @日期：2014-05-15 </p>
 	 * <br> ##################################################### </p>
 	 */
-	static class SimpleComparator {
+	static class SimpleComparator implements IndexSorter.IndexComparator {
 
 		/** <p><b><em> 关键字 </b></em></p> */
 		private String key;
+		/** <p><b><em> 关键字的访问器 </b></em></p> */
+		private PropertyAccessor accessor;
 		/** <p><b><em> 关键字的类型 </b></em></p> */
 		private KeyType keyType;
+		/** <p><b><em> 关键字是否是基本类型, 基本类型的关键字不会为空（嵌套字段路径除外） </b></em></p> */
+		private boolean primitive;
 		/** <p><b><em> 是否是升序排序 </b></em></p> */
 		private boolean isAsc;
+		/** <p><b><em> 空值是否排在非空值之前, 与升序降序无关 </b></em></p> */
+		private boolean nullsFirst;
+		/** <p><b><em> 整数类型、日期类型的关键字的值 </b></em></p> */
+		private long[] longKeys;
+		/** <p><b><em> 小数类型的关键字的值 </b></em></p> */
+		private double[] doubleKeys;
+		/** <p><b><em> 字符类型的关键字的排序器, 为空时按 GBK 编码排序 </b></em></p> */
+		private Collator collator;
+		/** <p><b><em> 字符类型的关键字的 GBK 编码或 CollationKey </b></em></p> */
+		private Object[] keys;
+		/** <p><b><em> 关键字的值是否为空, 基本类型的关键字不记录 </b></em></p> */
+		private boolean[] nulls;
 		
-		/** <p><b><em> 记录关键字, 反射获取关键字类型, 确定排序方式 </b></em></p> */
-		public SimpleComparator(Class<?> entityClass, String key, SortKey sortKey){
+		/** <p><b><em> 记录关键字, 获取关键字的访问器和类型, 确定排序方式, 字符类型的关键字按 GBK 编码排序 </b></em></p> */
+		public SimpleComparator(Class<?> entityClass, String key, SortKey sortKey, NullOrder nullOrder){
+			this(entityClass, key, sortKey, nullOrder, null);
+		}
+		
+		/** <p><b><em> 记录关键字, 获取关键字的访问器和类型, 确定排序方式, 字符类型的关键字按语言环境排序 </b></em></p> */
+		public SimpleComparator(Class<?> entityClass, String key, SortKey sortKey, NullOrder nullOrder, Locale locale){
 			this.key = key;
 			try {
-				this.keyType = KeyType.valueOf(Reflection.getFieldType(entityClass, key));
+				this.accessor = Reflection.getFieldAccessor(entityClass, key);
 			} catch (NoSuchFieldException e) {
-				e.printStackTrace();
+				throw new UnsupportedException(e.getMessage());
 			}
+			this.keyType = KeyType.valueOf(accessor.getType());
+			this.primitive = accessor.getType().isPrimitive() && key.indexOf('.') < 0;
 			isAsc = sortKey.ordinal() == SortKey.ASC.ordinal();
+			nullsFirst = nullOrder.ordinal() == NullOrder.FIRST.ordinal();
+			collator = locale == null || keyType != KeyType.STRING ? null : Collator.getInstance(locale);
 		}
 
-		/** <p><b><em> 反射获取关键字的值, 并根据关键字的类型比较关键字值的大小 </b></em></p> */
-		public int compare(Object o1, Object o2){
-			try {
-				switch (keyType) {
-					case NUMBER :
-						return numberCompare(value(o1), value(o2));
-					case STRING :
-						return StringCompare(value(o1), value(o2));
-					case DATE :
-						return dateCompare(value(o1), value(o2));
+		/** <p><b><em> 提取每个元素的关键字的值, 每个元素只读取一次 </b></em></p> */
+		public void extract(Object[] source){
+			allocate(source.length);
+			for(int i = 0; i < source.length; i++){
+				extract(i, source[i]);
+			}
+		}
+
+		/** <p><b><em> 将元素均分为 parts 段, 并行提取每个元素的关键字的值 </b></em></p> */
+		public void extract(final Object[] source, int parts){
+			allocate(source.length);
+			final int[] bounds = ParallelExecutor.split(source.length, parts);
+			ParallelExecutor.invokeAll(parts, new ParallelExecutor.Task() {
+
+				@Override
+				public void run(int part) {
+					for(int i = bounds[part]; i < bounds[part + 1]; i++){
+						extract(i, source[i]);
+					}
 				}
-			} catch (Throwable e) {
-				e.printStackTrace();
+
+			});
+		}
+
+		/** <p><b><em> 分配存放关键字的值的空间 </b></em></p> */
+		public void allocate(int size){
+			switch (keyType) {
+				case INTEGER :
+				case DATE :
+					longKeys = new long[size];
+					break;
+				case DECIMAL :
+					doubleKeys = new double[size];
+					break;
+				default :
+					keys = new Object[size];
+			}
+			nulls = primitive ? null : new boolean[size];
+		}
+		
+		/** <p><b><em> 调整存放关键字的值的空间, 保留已提取的值 </b></em></p> */
+		public void resize(int size){
+			switch (keyType) {
+				case INTEGER :
+				case DATE :
+					longKeys = Arrays.copyOf(longKeys, size);
+					break;
+				case DECIMAL :
+					doubleKeys = Arrays.copyOf(doubleKeys, size);
+					break;
+				default :
+					keys = Arrays.copyOf(keys, size);
+			}
+			nulls = primitive ? null : Arrays.copyOf(nulls, size);
+		}
+		
+		/** <p><b><em> 每个元素的关键字的值所占的字节数, 字符类型的关键字只计数组中的引用 </b></em></p> */
+		public int keyWidth(){
+			return 8 + (primitive ? 0 : 1);
+		}
+
+		/** <p><b><em> 提取一个元素的关键字的值, 存放到下标所对应的位置 </b></em></p> */
+		public void extract(int index, Object entity){
+			if(primitive){
+				if(keyType == KeyType.INTEGER){
+					longKeys[index] = accessor.getLong(entity);
+				}else {
+					doubleKeys[index] = accessor.getDouble(entity);
+				}
+				return;
+			}
+			Object value = accessor.get(entity);
+			nulls[index] = value == null;
+			if(value == null){
+				return;
+			}
+			switch (keyType) {
+				case INTEGER :
+					longKeys[index] = ((Number) value).longValue();
+					break;
+				case DECIMAL :
+					doubleKeys[index] = ((Number) value).doubleValue();
+					break;
+				case DATE :
+					longKeys[index] = ((Date) value).getTime();
+					break;
+				default :
+					keys[index] = collationKey(value.toString());
 			}
-			throw new UnsupportedException(key + " is not supported.");
 		}
 
-		/** <p><b><em> 比较两个数值类型关键字的大小 </b></em></p> */
-		private int numberCompare(Object o1, Object o2) {
-			BigDecimal n1 = new BigDecimal(o1.toString());
-			BigDecimal n2 = new BigDecimal(o2.toString());
-			return isAsc ? n1.compareTo(n2) : n2.compareTo(n1);
+		/** <p><b><em> 根据关键字的类型比较下标所对应的两个关键字值的大小 </b></em></p> */
+		public int compare(int i, int j){
+			if(nulls != null && (nulls[i] || nulls[j])){
+				if(nulls[i] && nulls[j]){
+					return 0;
+				}
+				return nulls[i] == nullsFirst ? -1 : 1;
+			}
+			if(!isAsc){
+				int temp = i;
+				i = j;
+				j = temp;
+			}
+			switch (keyType) {
+				case INTEGER :
+				case DATE :
+					return longCompare(longKeys[i], longKeys[j]);
+				case DECIMAL :
+					return Double.compare(doubleKeys[i], doubleKeys[j]);
+				case STRING :
+					return collator == null ? bytesCompare((byte[]) keys[i], (byte[]) keys[j]) : 
+						((CollationKey) keys[i]).compareTo((CollationKey) keys[j]);
+			}
+			throw new UnsupportedException(key + " is not supported.");
 		}
 
-		/** <p><b><em> 比较两个字符类型关键字的大小 </b></em></p> */
-		private int StringCompare(Object o1, Object o2) throws UnsupportedEncodingException {
-			String s1 = new String(o1.toString().getBytes("GBK"), "ISO-8859-1");
-			String s2 = new String(o2.toString().getBytes("GBK"), "ISO-8859-1");
-			return isAsc ? s1.compareTo(s2) : s2.compareTo(s1);
+		/** <p><b><em> 将字符类型的关键字转换为可直接比较的 GBK 编码或 CollationKey, 每个关键字只转换一次 </b></em></p> */
+		private Object collationKey(String value){
+			if(collator != null){
+				return collator.getCollationKey(value);
+			}
+			try {
+				return value.getBytes("GBK");
+			} catch (UnsupportedEncodingException e) {
+				throw new UnsupportedException(e.getMessage());
+			}
 		}
 
-		/** <p><b><em> 比较两个日期类型关键字的大小 </b></em></p> */
-		private int dateCompare(Object o1, Object o2) {
-			return isAsc ? ((Date)o1).compareTo((Date)o2) : ((Date)o2).compareTo((Date)o1);
+		/** <p><b><em> 比较两个整数类型关键字的大小 </b></em></p> */
+		private static int longCompare(long n1, long n2) {
+			return n1 < n2 ? -1 : (n1 == n2 ? 0 : 1);
 		}
 
-		/** <p><b><em> 反射获取关键字的值 </b></em></p> */
-		private Object value(Object o) throws NoSuchFieldException {
-			return Reflection.getFieldValue(o, key);
+		/** <p><b><em> 按无符号字节逐个比较两个 GBK 编码的字符类型关键字的大小 </b></em></p> */
+		private static int bytesCompare(byte[] b1, byte[] b2) {
+			int length = Math.min(b1.length, b2.length);
+			for(int i = 0; i < length; i++){
+				int c1 = b1[i] & 0xFF;
+				int c2 = b2[i] & 0xFF;
+				if(c1 != c2){
+					return c1 - c2;
+				}
+			}
+			return b1.length - b2.length;
 		}
 		
 		/**
 		 * <p> ##################################################### </p>
-		 * <p> @描述：支持的关键字类型<pre>NUMBER("数值类型"), STRING("字符类型"), DATE("日期类型")</pre></p>
+		 * <p> @描述：支持的关键字类型<pre>INTEGER("整数类型"), DECIMAL("小数类型"), STRING("字符类型"), DATE("日期类型")</pre></p>
 		 * <p> @作者：fancy </p>
 		 * <p> @邮箱：fancores@163.com </p>
 		 * <p> @日期：2014-05-15 </p>
@@ -449,13 +1445,16 @@ public class Container {
 		 */
 		enum KeyType {
 			
-			NUMBER("数值类型"), STRING("字符类型"), DATE("日期类型");
+			INTEGER("整数类型"), DECIMAL("小数类型"), STRING("字符类型"), DATE("日期类型");
 			
 			private String value;
-			/** <p><b><em> 支持的数值类型 </b></em></p> */
-			private static final List<String> numberContainer = asList(
-				"byte", "short", "int", "long", "float", "double",
-				"Byte", "Short", "Integer", "Long", "Float", "Double"
+			/** <p><b><em> 支持的整数类型 </b></em></p> */
+			private static final List<String> integerContainer = asList(
+				"byte", "short", "int", "long", "Byte", "Short", "Integer", "Long"
+			);
+			/** <p><b><em> 支持的小数类型 </b></em></p> */
+			private static final List<String> decimalContainer = asList(
+				"float", "double", "Float", "Double"
 			);
 			
 			private KeyType(String value){
@@ -465,8 +1464,10 @@ public class Container {
 			/** <p><b><em> 根据关键字类型确定比较类型 </b></em></p> */
 			public static KeyType valueOf(Class<?> type){
 				String name = type.getSimpleName();
-				if(numberContainer.contains(name)){
-					return NUMBER;
+				if(integerContainer.contains(name)){
+					return INTEGER;
+				}else if(decimalContainer.contains(name)){
+					return DECIMAL;
 				}else if(name.equals("String")){
 					return STRING;
 				}else if(name.equals("Date")){
@@ -525,4 +1526,29 @@ public class Container {
 		}
 		
 	}
+	
+	/**
+	 * <p> ##################################################### </p>
+	 * <p> @描述：关键字为空的元素的排列位置<pre>FIRST("空值在前"), LAST("空值在后")</pre></p>
+	 * <p> @作者：fancy </p>
+	 * <p> @邮箱：fancores@163.com </p>
+	 * <p> @日期：2014-06-10 </p>
+	 * <br> ##################################################### </p>
+	 */
+	public enum NullOrder {
+		
+		FIRST("空值在前"), LAST("空值在后");
+		
+		private String value;
+		
+		private NullOrder(String value){
+			this.value = value;
+		}
+
+		@Override
+		public String toString() {
+			return value;
+		}
+		
+	}
 }
\ No newline at end of file
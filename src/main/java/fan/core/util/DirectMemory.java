@@ -0,0 +1,68 @@
+package fan.core.util;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+/**
+ * <p> ##################################################### </p>
+ * <p> @描述：堆外内存的分配与释放。堆外内存不在垃圾回收器的扫描范围内 </p>
+ * <p> 直接缓冲区默认要等到缓冲区对象被回收后才释放内存, 此处通过反射调用缓冲区的 cleaner 立即释放:
+ *     Java 9 及以上调用 sun.misc.Unsafe.invokeCleaner, Java 8 及以下调用 DirectByteBuffer.cleaner().clean()。
+ *     两者都不可用时, 内存仍由垃圾回收器在缓冲区对象被回收后释放 </p>
+ * <p> @作者：fancy </p>
+ * <p> @邮箱：fancores@163.com </p>
+ * <p> @日期：2014-06-29 </p>
+ * <br> ##################################################### </p>
+ */
+final class DirectMemory {
+
+	/** <p><b><em> sun.misc.Unsafe 实例, 不可用时为 null。Instantiator 也以此不经构造方法创建对象 </b></em></p> */
+	static final Object UNSAFE;
+	/** <p><b><em> Unsafe.invokeCleaner(ByteBuffer) 方法, Java 8 及以下为 null </b></em></p> */
+	private static final Method INVOKE_CLEANER;
+
+	static {
+		Object unsafe = null;
+		Method invokeCleaner = null;
+		try {
+			Class<?> type = Class.forName("sun.misc.Unsafe");
+			Field field = type.getDeclaredField("theUnsafe");
+			field.setAccessible(true);
+			unsafe = field.get(null);
+			invokeCleaner = type.getMethod("invokeCleaner", ByteBuffer.class);
+		} catch (Exception e) { /* Java 8 及以下没有 invokeCleaner 方法, 释放时改用缓冲区的 cleaner */ }
+		UNSAFE = unsafe;
+		INVOKE_CLEANER = invokeCleaner;
+	}
+
+	private DirectMemory(){
+
+	}
+
+	/** <p><b><em> 分配 size 字节已清零的堆外内存, 字节序为本机字节序 </b></em></p> */
+	static ByteBuffer allocate(int size){
+		return ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder());
+	}
+
+	/** <p><b><em> 立即释放直接缓冲区的堆外内存, 释放后不能再访问缓冲区 </b></em></p> */
+	static void free(ByteBuffer buffer){
+		if(buffer == null || !buffer.isDirect()){
+			return;
+		}
+		try {
+			if(INVOKE_CLEANER != null){
+				INVOKE_CLEANER.invoke(UNSAFE, buffer);
+			}else {
+				Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+				cleanerMethod.setAccessible(true);
+				Object cleaner = cleanerMethod.invoke(buffer);
+				if(cleaner != null){
+					Method clean = cleaner.getClass().getMethod("clean");
+					clean.setAccessible(true);
+					clean.invoke(cleaner);
+				}
+			}
+		} catch (Exception e) { /* 无法立即释放时, 由垃圾回收器在缓冲区对象被回收后释放 */ }
+	}
+}
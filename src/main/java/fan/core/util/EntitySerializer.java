@@ -0,0 +1,34 @@
+package fan.core.util;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+/**
+ * <p> ##################################################### </p>
+ * <p> @描述：实体序列化器。将实体写出为字节, 并按写出的顺序读回实体 </p>
+ * <p> read 方法必须恰好读取 write 方法写出的字节, 多个实体的字节首尾相接存放 </p>
+ * <pre>
+ * >>> <b><em>e.g.</em></b>
+ * >>> EntitySerializer&lt;User&gt; serializer = new EntitySerializer&lt;User&gt;() {
+ * >>>     public void write(User user, DataOutput out) throws IOException {
+ * >>>         out.writeInt(user.getId());
+ * >>>         out.writeUTF(user.getName());
+ * >>>     }
+ * >>>     public User read(DataInput in) throws IOException {
+ * >>>         return new User(in.readInt(), in.readUTF());
+ * >>>     }
+ * >>> };
+ * </pre>
+ * <p> @作者：fancy </p>
+ * <p> @邮箱：fancores@163.com </p>
+ * <p> @日期：2014-06-27 </p>
+ * <br> ##################################################### </p>
+ */
+public interface EntitySerializer<T> {
+
+	/** <p><b><em> 写出实体 </b></em></p> */
+	void write(T entity, DataOutput out) throws IOException;
+
+	/** <p><b><em> 读回实体 </b></em></p> */
+	T read(DataInput in) throws IOException;
+}
@@ -2,6 +2,17 @@ package fan.core.util;
 /**
  * <p> ##################################################### </p>
  * <p> @描述：执行时异常, 抛出终止客户端代码执行 </p>
+ * <p> 异常创建时交给处理器记录, 默认的处理器输出到 System.err, 可以替换为日志框架或 Handler.QUIET。
+ *     关闭堆栈后创建异常不再遍历调用栈, 原因异常的堆栈不受影响, 适合异常频繁发生的场景 </p>
+ * <pre>
+ * >>> <b><em>e.g.</em></b>
+ * >>> ExecutetimeException.setHandler(new ExecutetimeException.Handler() {
+ * >>>     public void handle(ExecutetimeException e) {
+ * >>>         logger.warn(e.getMessage(), e.getCause());
+ * >>>     }
+ * >>> });
+ * >>> ExecutetimeException.setStackTraceEnabled(false);
+ * </pre>
  * <p> @作者：fancy </p>
  * <p> @邮箱：fancores@163.com </p>
  * <p> @日期：2014-05-24 </p>
@@ -11,19 +22,72 @@ public class ExecutetimeException extends RuntimeException {
 
 	private static final long serialVersionUID = 6635246863882893402L;
 
+	/** <p><b><em> 异常处理器 </b></em></p> */
+	private static volatile Handler handler = Handler.PRINT;
+	/** <p><b><em> 是否记录异常创建时的堆栈 </b></em></p> */
+	private static volatile boolean stackTraceEnabled = true;
+
 	public ExecutetimeException(String message){
-		System.err.println(message);
+		super(message);
+		handler.handle(this);
 	}
 
 	public ExecutetimeException(Throwable e){
-		e.printStackTrace();
+		super(e);
+		handler.handle(this);
 	}
-	
+
 	public ExecutetimeException(Throwable e, String message){
-		System.err.println(message);
-		try {
-			Thread.sleep(25);
-		} catch (InterruptedException ie) { }
-		e.printStackTrace();
+		super(message, e);
+		handler.handle(this);
+	}
+
+	/** <p><b><em> 替换异常处理器, 为空时不做任何处理 </b></em></p> */
+	public static void setHandler(Handler handler){
+		ExecutetimeException.handler = handler == null ? Handler.QUIET : handler;
+	}
+
+	/** <p><b><em> 是否记录异常创建时的堆栈, 关闭后之后创建的异常没有堆栈 </b></em></p> */
+	public static void setStackTraceEnabled(boolean enabled){
+		stackTraceEnabled = enabled;
+	}
+
+	@Override
+	public synchronized Throwable fillInStackTrace() {
+		return stackTraceEnabled ? super.fillInStackTrace() : this;
+	}
+
+	/**
+	 * <p> ##################################################### </p>
+	 * <p> @描述：异常处理器, 在异常创建时调用, 不应抛出异常 </p>
+	 * <p> @作者：fancy </p>
+	 * <p> @邮箱：fancores@163.com </p>
+	 * <p> @日期：2014-07-08 </p>
+	 * <br> ##################################################### </p>
+	 */
+	public interface Handler {
+
+		/** <p><b><em> 输出异常的堆栈到 System.err </b></em></p> */
+		Handler PRINT = new Handler() {
+
+			@Override
+			public void handle(ExecutetimeException e) {
+				e.printStackTrace();
+			}
+
+		};
+
+		/** <p><b><em> 不做任何处理, 由捕获异常的调用方记录 </b></em></p> */
+		Handler QUIET = new Handler() {
+
+			@Override
+			public void handle(ExecutetimeException e) {
+
+			}
+
+		};
+
+		/** <p><b><em> 处理新创建的异常 </b></em></p> */
+		void handle(ExecutetimeException e);
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,616 @@
+package fan.core.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+/**
+ * <p> ##################################################### </p>
+ * <p> @描述：外部归并排序。排序超出堆内存容量的实体序列 </p>
+ * <p> 实体到达时立即序列化到内存中的有序段缓冲区, 只保留其排序关键字, 不保留实体对象。
+ *     有序段的元素数量达到 runSize 或占用的内存达到 memoryBudget 时, 按关键字排序后通过 FileChannel 写出到临时文件。
+ *     输入结束后, 最后一个有序段留在内存中, 各有序段经 k 路归并, 以迭代器的形式逐个读回实体 </p>
+ * <p> 序列化字节、元素偏移、排序下标和排序关键字的数组合计不超过 memoryBudget, 下标、偏移和关键字至多占用一半, 超出时减少有序段的元素数量。
+ *     序列化缓冲区扩容时新旧数组合计不超过其余的一半, 写入实体时缓冲区已满则先写出已完整序列化的实体, 不再扩容。
+ *     最后一个有序段与归并所需的读写缓冲区合计不超过 memoryBudget 时才留在内存中, 否则同样写出到临时文件。
+ *     有序段多于 maxFanIn 个时, 先逐趟将相邻的 maxFanIn 个有序段归并为一个临时文件, 直到不多于 maxFanIn 个,
+ *     归并时同时打开的文件和读缓冲区不超过 maxFanIn 个。堆内存占用与输入的规模无关, 单个实体的序列化字节超出缓冲区时除外。
+ *     字符类型的关键字只计数组中的引用。排序是稳定的 </p>
+ * <pre>
+ * >>> <b><em>e.g.</em></b>
+ * >>> ExternalSorter&lt;User&gt; sorter = new ExternalSorter&lt;User&gt;(SortSpec.of(User.class).asc("id"), serializer)
+ * >>>     .runSize(500000)
+ * >>>     .memoryBudget(32 * 1024 * 1024);
+ * >>> ExternalSorter.SortedIterator&lt;User&gt; it = sorter.sort(userDao.iterate());
+ * >>> try {
+ * >>>     while(it.hasNext()){
+ * >>>         writer.write(it.next());
+ * >>>     }
+ * >>> } finally {
+ * >>>     it.close();
+ * >>> }
+ * </pre>
+ * <p> @作者：fancy </p>
+ * <p> @邮箱：fancores@163.com </p>
+ * <p> @日期：2014-06-27 </p>
+ * <br> ##################################################### </p>
+ */
+public class ExternalSorter<T> {
+
+	/** <p><b><em> 默认的有序段元素数量上限 </b></em></p> */
+	public static final int DEFAULT_RUN_SIZE = 1 << 20;
+	/** <p><b><em> 默认的有序段内存上限 </b></em></p> */
+	public static final int DEFAULT_MEMORY_BUDGET = 64 << 20;
+	/** <p><b><em> 默认的一趟归并的有序段数量上限 </b></em></p> */
+	public static final int DEFAULT_MAX_FAN_IN = 64;
+	/** <p><b><em> 读写临时文件的缓冲区大小 </b></em></p> */
+	private static final int IO_BUFFER_SIZE = 1 << 16;
+
+	/** <p><b><em> 排序规则 </b></em></p> */
+	private final SortSpec<T> spec;
+	/** <p><b><em> 实体序列化器 </b></em></p> */
+	private final EntitySerializer<T> serializer;
+	/** <p><b><em> 有序段元素数量上限 </b></em></p> */
+	private int runSize = DEFAULT_RUN_SIZE;
+	/** <p><b><em> 有序段内存上限 </b></em></p> */
+	private int memoryBudget = DEFAULT_MEMORY_BUDGET;
+	/** <p><b><em> 一趟归并的有序段数量上限 </b></em></p> */
+	private int maxFanIn = DEFAULT_MAX_FAN_IN;
+	/** <p><b><em> 临时文件目录, 为空时使用系统临时目录 </b></em></p> */
+	private File tempDirectory;
+
+	public ExternalSorter(SortSpec<T> spec, EntitySerializer<T> serializer){
+		this.spec = spec;
+		this.serializer = serializer;
+	}
+
+	/** <p><b><em> 指定有序段的元素数量上限, 排序关键字按此数量预先分配空间, 超出 memoryBudget 的一半时按 memoryBudget 减少 </b></em></p> */
+	public ExternalSorter<T> runSize(int runSize){
+		if(runSize <= 0){
+			throw new IllegalArgumentException("runSize must be positive.");
+		}
+		this.runSize = runSize;
+		return this;
+	}
+
+	/** <p><b><em> 指定有序段的内存上限, 包括序列化字节、元素偏移和排序关键字 </b></em></p> */
+	public ExternalSorter<T> memoryBudget(int memoryBudget){
+		if(memoryBudget <= 0){
+			throw new IllegalArgumentException("memoryBudget must be positive.");
+		}
+		this.memoryBudget = memoryBudget;
+		return this;
+	}
+
+	/** <p><b><em> 指定一趟归并的有序段数量上限, 即同时打开的临时文件数量上限 </b></em></p> */
+	public ExternalSorter<T> maxFanIn(int maxFanIn){
+		if(maxFanIn < 2){
+			throw new IllegalArgumentException("maxFanIn must be at least 2.");
+		}
+		this.maxFanIn = maxFanIn;
+		return this;
+	}
+
+	/** <p><b><em> 指定临时文件目录 </b></em></p> */
+	public ExternalSorter<T> tempDirectory(File tempDirectory){
+		this.tempDirectory = tempDirectory;
+		return this;
+	}
+
+	/**
+	 * <p><b><em> 排序迭代器中的实体, 返回按排序规则逐个读回实体的迭代器 </b></em></p>
+	 * <p> 返回的迭代器读完后自动删除临时文件, 未读完时应调用 close 方法删除临时文件 </p>
+	 */
+	public SortedIterator<T> sort(Iterator<T> source) throws IOException {
+		RunCollector collector = new RunCollector();
+		List<Run> runs = collector.runs;
+		try {
+			while(source.hasNext()){
+				collector.add(source.next());
+			}
+			collector.finish();
+			while(runs.size() > maxFanIn){
+				runs = mergePass(runs);
+			}
+		} catch (IOException e) {
+			closeAll(runs);
+			throw e;
+		} catch (RuntimeException e) {
+			closeAll(runs);
+			throw e;
+		}
+		return new SortedIterator<T>(runs, spec, serializer);
+	}
+
+	/** <p><b><em> 排序有序段中的元素下标 </b></em></p> */
+	private static int[] sortRun(int count, IndexSorter.IndexComparator keys){
+		int[] order = IndexSorter.identity(count);
+		IndexSorter.sort(order, keys);
+		return order;
+	}
+
+	/**
+	 * <p> ##################################################### </p>
+	 * <p> @描述：逐个序列化实体并收集为有序段, 元素数量或内存达到上限时写出到临时文件 </p>
+	 * <p> @作者：fancy </p>
+	 * <p> @邮箱：fancores@163.com </p>
+	 * <p> @日期：2014-06-27 </p>
+	 * <br> ##################################################### </p>
+	 */
+	private final class RunCollector {
+
+		/** <p><b><em> 已收集的有序段 </b></em></p> */
+		final List<Run> runs = new ArrayList<Run>();
+		/** <p><b><em> 有序段的元素数量上限 </b></em></p> */
+		private final int capacity;
+		/** <p><b><em> 序列化缓冲区的字节数上限 </b></em></p> */
+		private final int byteBudget;
+		private final RunBuffer buffer;
+		private final DataOutputStream out;
+		/** <p><b><em> 各元素序列化字节的起始位置, 正在序列化的元素的起始位置为 offsets[count] </b></em></p> */
+		private int[] offsets;
+		private SortSpec.CompoundComparator keys;
+		private int count;
+
+		RunCollector(){
+			keys = spec.compile();
+			/* 每个元素占用偏移、排序下标、排序时的临时下标和各关键字的值 */
+			int elementWidth = 12 + keys.keyWidth();
+			capacity = Math.max(1, Math.min(runSize, (memoryBudget / 2 - 4) / elementWidth));
+			byteBudget = (int) Math.max(1, memoryBudget - 4 - (long) capacity * elementWidth);
+			buffer = new RunBuffer(Math.min(byteBudget, IO_BUFFER_SIZE), byteBudget) {
+
+				@Override
+				boolean makeRoom() throws IOException {
+					if(count == 0){
+						return false;
+					}
+					spillCompleted(offsets[count]);
+					return true;
+				}
+
+			};
+			out = new DataOutputStream(buffer);
+			offsets = new int[capacity + 1];
+			keys.allocate(capacity);
+		}
+
+		/** <p><b><em> 序列化实体并提取其排序关键字, 序列化时缓冲区已满会先写出此前的实体 </b></em></p> */
+		void add(T entity) throws IOException {
+			offsets[count] = buffer.size();
+			serializer.write(entity, out);
+			keys.extract(count++, entity);
+			if(count == capacity || buffer.size() >= byteBudget){
+				spillCompleted(buffer.size());
+			}
+		}
+
+		/** <p><b><em> 输入结束, 最后一个有序段与归并所需的缓冲区能容纳在 memoryBudget 内时留在内存中, 否则写出 </b></em></p> */
+		void finish() throws IOException {
+			if(count == 0){
+				return;
+			}
+			offsets[count] = buffer.size();
+			int[] order = sortRun(count, keys);
+			keys = null;
+			int[] retained = count + 1 < offsets.length ? Arrays.copyOf(offsets, count + 1) : offsets;
+			int mergeBuffers = Math.min(runs.size() + 1, maxFanIn) + 1;
+			long resident = buffer.buffer().length + 4L * (retained.length + order.length) + (long) mergeBuffers * IO_BUFFER_SIZE;
+			if(resident <= memoryBudget){
+				runs.add(new MemoryRun(buffer.buffer(), retained, order));
+			}else {
+				runs.add(spill(buffer.buffer(), offsets, order));
+			}
+			count = 0;
+		}
+
+		/** <p><b><em> 将已完整序列化的实体作为一个有序段写出, [end, size()) 为正在序列化的实体的字节, 移到缓冲区开头 </b></em></p> */
+		private void spillCompleted(int end) throws IOException {
+			offsets[count] = end;
+			runs.add(spill(buffer.buffer(), offsets, sortRun(count, keys)));
+			buffer.discard(end);
+			count = 0;
+			offsets[0] = 0;
+		}
+	}
+
+	/** <p><b><em> 按下标顺序将有序段的序列化字节通过 FileChannel 写出到临时文件 </b></em></p> */
+	private Run spill(byte[] bytes, int[] offsets, int[] order) throws IOException {
+		File file = File.createTempFile("fan-core-util-sort-", ".run", tempDirectory);
+		FileOutputStream stream = new FileOutputStream(file);
+		try {
+			FileChannel channel = stream.getChannel();
+			ByteBuffer output = ByteBuffer.allocate(IO_BUFFER_SIZE);
+			for(int index : order){
+				int offset = offsets[index], length = offsets[index + 1] - offset;
+				if(length > output.remaining()){
+					flush(channel, output);
+				}
+				if(length > output.capacity()){
+					writeFully(channel, ByteBuffer.wrap(bytes, offset, length));
+				}else {
+					output.put(bytes, offset, length);
+				}
+			}
+			flush(channel, output);
+		} catch (IOException e) {
+			stream.close();
+			file.delete();
+			throw e;
+		}
+		stream.close();
+		return new FileRun(file, order.length);
+	}
+
+	/**
+	 * <p><b><em> 一趟归并: 将相邻的 maxFanIn 个有序段归并为一个临时文件, 返回归并后的有序段 </b></em></p>
+	 * <p> 只归并相邻的有序段且保持先后次序, 排序仍是稳定的。出现异常时关闭全部有序段 </p>
+	 */
+	private List<Run> mergePass(List<Run> runs) throws IOException {
+		List<Run> merged = new ArrayList<Run>((runs.size() + maxFanIn - 1) / maxFanIn);
+		int from = 0;
+		try {
+			for(; from < runs.size(); from += maxFanIn){
+				List<Run> group = runs.subList(from, Math.min(from + maxFanIn, runs.size()));
+				merged.add(group.size() == 1 ? group.get(0) : merge(group));
+			}
+		} catch (IOException e) {
+			closeAll(merged);
+			closeAll(runs.subList(from, runs.size()));
+			throw e;
+		} catch (RuntimeException e) {
+			closeAll(merged);
+			closeAll(runs.subList(from, runs.size()));
+			throw e;
+		}
+		return merged;
+	}
+
+	/** <p><b><em> 归并一组有序段并写出到临时文件, 读完的有序段随即删除 </b></em></p> */
+	private Run merge(List<Run> group) throws IOException {
+		SortedIterator<T> iterator = new SortedIterator<T>(group, spec, serializer);
+		File file = File.createTempFile("fan-core-util-sort-", ".run", tempDirectory);
+		FileOutputStream stream = new FileOutputStream(file);
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(stream.getChannel()), IO_BUFFER_SIZE));
+		int count = 0;
+		try {
+			while(iterator.hasNext()){
+				serializer.write(iterator.next(), out);
+				count++;
+			}
+			out.close();
+		} catch (IOException e) {
+			iterator.close();
+			stream.close();
+			file.delete();
+			throw e;
+		} catch (RuntimeException e) {
+			iterator.close();
+			stream.close();
+			file.delete();
+			throw e;
+		}
+		return new FileRun(file, count);
+	}
+
+	/** <p><b><em> 写出缓冲区中已写入的字节, 并清空缓冲区 </b></em></p> */
+	private static void flush(FileChannel channel, ByteBuffer output) throws IOException {
+		output.flip();
+		writeFully(channel, output);
+		output.clear();
+	}
+
+	/** <p><b><em> 写出缓冲区中剩余的全部字节 </b></em></p> */
+	private static void writeFully(FileChannel channel, ByteBuffer output) throws IOException {
+		while(output.hasRemaining()){
+			channel.write(output);
+		}
+	}
+
+	/** <p><b><em> 关闭所有有序段 </b></em></p> */
+	private static void closeAll(List<Run> runs){
+		for(Run run : runs){
+			run.close();
+		}
+	}
+
+	/**
+	 * <p> ##################################################### </p>
+	 * <p> @描述：按排序规则归并各有序段的迭代器。读完后自动删除临时文件 </p>
+	 * <p> @作者：fancy </p>
+	 * <p> @邮箱：fancores@163.com </p>
+	 * <p> @日期：2014-06-27 </p>
+	 * <br> ##################################################### </p>
+	 */
+	public static final class SortedIterator<T> implements Iterator<T>, Closeable {
+
+		/** <p><b><em> 有序段 </b></em></p> */
+		private final Run[] runs;
+		/** <p><b><em> 各有序段当前的首个实体 </b></em></p> */
+		private final Object[] heads;
+		/** <p><b><em> 各有序段首个实体的排序关键字, 下标为有序段的序号 </b></em></p> */
+		private final SortSpec.CompoundComparator keys;
+		/** <p><b><em> 实体序列化器 </b></em></p> */
+		private final EntitySerializer<T> serializer;
+		/** <p><b><em> 有序段序号的堆, 堆顶是首个实体排序最靠前的有序段 </b></em></p> */
+		private final int[] heap;
+		/** <p><b><em> 比较结果较小的有序段靠近堆顶, 关键字相等时序号小的有序段优先 </b></em></p> */
+		private final IndexSorter.IndexComparator reversed;
+		private int size;
+
+		SortedIterator(List<Run> runList, SortSpec<T> spec, EntitySerializer<T> serializer){
+			this.runs = runList.toArray(new Run[runList.size()]);
+			this.heads = new Object[runs.length];
+			this.keys = spec.compile();
+			this.serializer = serializer;
+			this.heap = new int[runs.length];
+			this.reversed = new IndexSorter.IndexComparator() {
+
+				@Override
+				public int compare(int i, int j) {
+					int result = keys.compare(j, i);
+					return result != 0 ? result : j - i;
+				}
+
+			};
+			keys.allocate(runs.length);
+			for(int i = 0; i < runs.length; i++){
+				if(advance(i)){
+					heap[size] = i;
+					IndexSorter.siftUp(heap, size++, reversed);
+				}
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return size > 0;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public T next() {
+			if(size == 0){
+				throw new NoSuchElementException();
+			}
+			int run = heap[0];
+			T entity = (T) heads[run];
+			if(!advance(run)){
+				heap[0] = heap[--size];
+			}
+			if(size > 0){
+				IndexSorter.siftDown(heap, size, reversed);
+			}
+			return entity;
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+		/** <p><b><em> 关闭迭代器, 删除尚未读完的临时文件 </b></em></p> */
+		@Override
+		public void close() {
+			closeAll(Arrays.asList(runs));
+			size = 0;
+		}
+
+		/** <p><b><em> 读取有序段的下一个实体, 有序段已读完时关闭有序段并返回 false </b></em></p> */
+		private boolean advance(int run){
+			if(runs[run].remaining == 0){
+				heads[run] = null;
+				runs[run].close();
+				return false;
+			}
+			try {
+				heads[run] = serializer.read(runs[run].next());
+			} catch (IOException e) {
+				close();
+				throw new ExecutetimeException(e);
+			}
+			keys.extract(run, heads[run]);
+			return true;
+		}
+	}
+
+	/**
+	 * <p> ##################################################### </p>
+	 * <p> @描述：有序段 </p>
+	 * <p> @作者：fancy </p>
+	 * <p> @邮箱：fancores@163.com </p>
+	 * <p> @日期：2014-06-27 </p>
+	 * <br> ##################################################### </p>
+	 */
+	private static abstract class Run {
+
+		/** <p><b><em> 尚未读取的实体数量 </b></em></p> */
+		int remaining;
+
+		Run(int remaining){
+			this.remaining = remaining;
+		}
+
+		/** <p><b><em> 定位到下一个实体的序列化字节 </b></em></p> */
+		abstract DataInput next() throws IOException;
+
+		/** <p><b><em> 释放有序段占用的资源 </b></em></p> */
+		abstract void close();
+	}
+
+	/**
+	 * <p> ##################################################### </p>
+	 * <p> @描述：写出到临时文件的有序段, 通过 FileChannel 顺序读取 </p>
+	 * <p> @作者：fancy </p>
+	 * <p> @邮箱：fancores@163.com </p>
+	 * <p> @日期：2014-06-27 </p>
+	 * <br> ##################################################### </p>
+	 */
+	private static final class FileRun extends Run {
+
+		private final File file;
+		private DataInputStream input;
+
+		FileRun(File file, int count){
+			super(count);
+			this.file = file;
+		}
+
+		@Override
+		DataInput next() throws IOException {
+			if(input == null){
+				FileChannel channel = new FileInputStream(file).getChannel();
+				input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), IO_BUFFER_SIZE));
+			}
+			remaining--;
+			return input;
+		}
+
+		@Override
+		void close() {
+			remaining = 0;
+			if(input != null){
+				try {
+					input.close();
+				} catch (IOException e) { /* 临时文件随后删除, 无需处理关闭时抛出的异常 */ }
+				input = null;
+			}
+			file.delete();
+		}
+	}
+
+	/**
+	 * <p> ##################################################### </p>
+	 * <p> @描述：留在内存中的最后一个有序段, 按下标顺序直接读取序列化字节 </p>
+	 * <p> @作者：fancy </p>
+	 * <p> @邮箱：fancores@163.com </p>
+	 * <p> @日期：2014-06-27 </p>
+	 * <br> ##################################################### </p>
+	 */
+	private static final class MemoryRun extends Run {
+
+		private byte[] bytes;
+		private int[] offsets;
+		private int[] order;
+		private int position;
+
+		MemoryRun(byte[] bytes, int[] offsets, int[] order){
+			super(order.length);
+			this.bytes = bytes;
+			this.offsets = offsets;
+			this.order = order;
+		}
+
+		@Override
+		DataInput next() {
+			int index = order[position++];
+			remaining--;
+			return new DataInputStream(new ByteArrayInputStream(bytes, offsets[index], offsets[index + 1] - offsets[index]));
+		}
+
+		@Override
+		void close() {
+			remaining = 0;
+			bytes = null;
+			offsets = null;
+			order = null;
+		}
+	}
+
+	/**
+	 * <p> ##################################################### </p>
+	 * <p> @描述：可直接访问内部字节数组的有序段缓冲区 </p>
+	 * <p> 扩容时新旧数组合计不超过 limit, 不能再扩容时先调用 makeRoom 腾出空间。
+	 *     单个实体的序列化字节超出可扩容的上限时才超出 limit 扩容, 写出后恢复 </p>
+	 * <p> @作者：fancy </p>
+	 * <p> @邮箱：fancores@163.com </p>
+	 * <p> @日期：2014-06-27 </p>
+	 * <br> ##################################################### </p>
+	 */
+	private static abstract class RunBuffer extends OutputStream {
+
+		private final int initialSize;
+		private final int limit;
+		private byte[] buf;
+		private int count;
+
+		RunBuffer(int size, int limit){
+			this.initialSize = size;
+			this.limit = limit;
+			this.buf = new byte[size];
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			ensureRemaining(1);
+			buf[count++] = (byte) b;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			ensureRemaining(len);
+			System.arraycopy(b, off, buf, count, len);
+			count += len;
+		}
+
+		/** <p><b><em> 已写入的字节数 </b></em></p> */
+		int size(){
+			return count;
+		}
+
+		/** <p><b><em> 获取内部字节数组, 有效字节为 [0, size()) </b></em></p> */
+		byte[] buffer(){
+			return buf;
+		}
+
+		/** <p><b><em> 丢弃 [0, from) 的字节, 其后的字节移到开头; 超出 limit 的数组恢复为初始大小 </b></em></p> */
+		void discard(int from){
+			int remaining = count - from;
+			if(buf.length > limit && remaining <= initialSize){
+				byte[] shrunk = new byte[initialSize];
+				System.arraycopy(buf, from, shrunk, 0, remaining);
+				buf = shrunk;
+			}else {
+				System.arraycopy(buf, from, buf, 0, remaining);
+			}
+			count = remaining;
+		}
+
+		/** <p><b><em> 缓冲区不能再扩容时腾出空间, 无法腾出时返回 false </b></em></p> */
+		abstract boolean makeRoom() throws IOException;
+
+		/** <p><b><em> 确保还能写入 length 个字节 </b></em></p> */
+		private void ensureRemaining(int length) throws IOException {
+			if(length <= buf.length - count){
+				return;
+			}
+			/* 扩容时新旧数组同时存在, 新数组至多为 limit 减去旧数组 */
+			long maxCapacity = Math.max(buf.length, (long) limit - buf.length);
+			if(count + (long) length > maxCapacity && makeRoom() && length <= buf.length - count){
+				return;
+			}
+			long required = count + (long) length;
+			long capacity = Math.max(required, Math.min(buf.length * 2L, maxCapacity));
+			if(capacity > Integer.MAX_VALUE - 8){
+				throw new OutOfMemoryError("Serialized run exceeds the maximum array size.");
+			}
+			buf = Arrays.copyOf(buf, (int) capacity);
+		}
+	}
+}
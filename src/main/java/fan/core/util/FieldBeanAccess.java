@@ -0,0 +1,117 @@
+package fan.core.util;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+/**
+ * <p> ##################################################### </p>
+ * <p> @描述：基于字段属性访问器数组的 BeanAccess 实现, 每个类只构建一次 </p>
+ * <p> @作者：fancy </p>
+ * <p> @邮箱：fancores@163.com </p>
+ * <p> @日期：2014-06-08 </p>
+ * <br> ##################################################### </p>
+ */
+final class FieldBeanAccess implements BeanAccess {
+
+	/** <p><b><em> 实体类 </b></em></p> */
+	private final Class<?> entityClass;
+	/** <p><b><em> 下标 -> 属性访问器 </b></em></p> */
+	private final PropertyAccessor[] accessors;
+	/** <p><b><em> 属性名称 -> 下标, 构建后只读 </b></em></p> */
+	private final Map<String, Integer> indexes;
+
+	FieldBeanAccess(Class<?> entityClass){
+		this.entityClass = entityClass;
+		List<PropertyAccessor> accessorList = new ArrayList<PropertyAccessor>();
+		Map<String, Integer> indexMap = new HashMap<String, Integer>();
+		for(Class<?> current = entityClass; current != null; current = current.getSuperclass()){
+			for(Field field : current.getDeclaredFields()){
+				if(indexMap.containsKey(field.getName())){
+					continue;
+				}
+				try {
+					field.setAccessible(true);
+				} catch (RuntimeException e) { /* 不可访问的字段不参与编排 */ 
+					continue;
+				}
+				indexMap.put(field.getName(), Integer.valueOf(accessorList.size()));
+				accessorList.add(PropertyAccessor.ofField(field));
+			}
+		}
+		this.accessors = accessorList.toArray(new PropertyAccessor[accessorList.size()]);
+		this.indexes = indexMap;
+	}
+
+	@Override
+	public Class<?> getEntityClass() {
+		return entityClass;
+	}
+
+	@Override
+	public int size() {
+		return accessors.length;
+	}
+
+	@Override
+	public int indexOf(String name) {
+		Integer index = indexes.get(name);
+		return index == null ? -1 : index.intValue();
+	}
+
+	@Override
+	public String getName(int index) {
+		return accessors[index].getName();
+	}
+
+	@Override
+	public Class<?> getType(int index) {
+		return accessors[index].getType();
+	}
+
+	@Override
+	public PropertyAccessor getAccessor(int index) {
+		return accessors[index];
+	}
+
+	@Override
+	public Object get(Object bean, int index) {
+		return accessors[index].get(bean);
+	}
+
+	@Override
+	public void set(Object bean, int index, Object value) {
+		accessors[index].set(bean, value);
+	}
+
+	@Override
+	public int getInt(Object bean, int index) {
+		return accessors[index].getInt(bean);
+	}
+
+	@Override
+	public long getLong(Object bean, int index) {
+		return accessors[index].getLong(bean);
+	}
+
+	@Override
+	public double getDouble(Object bean, int index) {
+		return accessors[index].getDouble(bean);
+	}
+
+	@Override
+	public void setInt(Object bean, int index, int value) {
+		accessors[index].setInt(bean, value);
+	}
+
+	@Override
+	public void setLong(Object bean, int index, long value) {
+		accessors[index].setLong(bean, value);
+	}
+
+	@Override
+	public void setDouble(Object bean, int index, double value) {
+		accessors[index].setDouble(bean, value);
+	}
+}
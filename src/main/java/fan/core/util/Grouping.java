@@ -0,0 +1,132 @@
+package fan.core.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+/**
+ * <p> ##################################################### </p>
+ * <p> @描述：按关键字的值为元素分组。为每个元素记录所属分组的序号, 并统计每个分组的元素数量 </p>
+ * <p> 分组按关键字的值首次出现的先后编号, 结果容器可以按分组的元素数量一次分配到位。
+ *     并行分组时, 各段元素分别在线程内的局部散列表中分组, 之后按段的先后顺序合并为全局的分组序号 </p>
+ * <p> @作者：fancy </p>
+ * <p> @邮箱：fancores@163.com </p>
+ * <p> @日期：2014-07-02 </p>
+ * <br> ##################################################### </p>
+ */
+final class Grouping {
+
+	/** <p><b><em> 各分组的关键字的值, 下标为分组序号 </b></em></p> */
+	final Object[] keys;
+	/** <p><b><em> 各分组的元素数量, 下标为分组序号 </b></em></p> */
+	final int[] counts;
+	/** <p><b><em> 每个元素所属的分组序号 </b></em></p> */
+	final int[] groupOf;
+
+	private Grouping(Object[] keys, int[] counts, int[] groupOf){
+		this.keys = keys;
+		this.counts = counts;
+		this.groupOf = groupOf;
+	}
+
+	/** <p><b><em> 分组的数量 </b></em></p> */
+	int size(){
+		return keys.length;
+	}
+
+	/** <p><b><em> 按访问器读取的关键字的值为元素分组, parts 大于 1 时将元素均分为 parts 段并行分组 </b></em></p> */
+	static Grouping of(final Object[] source, final PropertyAccessor accessor, int parts){
+		final int[] groupOf = new int[source.length];
+		final int[] bounds = ParallelExecutor.split(source.length, Math.max(parts, 1));
+		final Part[] partials = new Part[bounds.length - 1];
+		ParallelExecutor.invokeAll(partials.length, new ParallelExecutor.Task() {
+
+			@Override
+			public void run(int part) {
+				partials[part] = new Part(source, accessor, bounds[part], bounds[part + 1], groupOf);
+			}
+
+		});
+		if(partials.length == 1){
+			Part only = partials[0];
+			return new Grouping(only.keys(), only.counts.toArray(), groupOf);
+		}
+		/* 按段的先后顺序将局部分组序号映射为全局分组序号 */
+		int distinct = 0;
+		for(Part partial : partials){
+			distinct += partial.counts.size();
+		}
+		Map<Object, Integer> global = Container.newMapWithExpectedSize(distinct);
+		IntArrayList counts = new IntArrayList();
+		List<Object> keys = new ArrayList<Object>();
+		final int[][] remaps = new int[partials.length][];
+		for(int p = 0; p < partials.length; p++){
+			Part partial = partials[p];
+			int[] remap = remaps[p] = new int[partial.counts.size()];
+			Object[] localKeys = partial.keys();
+			for(int local = 0; local < localKeys.length; local++){
+				Integer group = global.get(localKeys[local]);
+				if(group == null){
+					group = Integer.valueOf(keys.size());
+					global.put(localKeys[local], group);
+					keys.add(localKeys[local]);
+					counts.add(0);
+				}
+				remap[local] = group.intValue();
+				counts.set(group.intValue(), counts.get(group.intValue()) + partial.counts.get(local));
+			}
+		}
+		ParallelExecutor.invokeAll(partials.length, new ParallelExecutor.Task() {
+
+			@Override
+			public void run(int part) {
+				int[] remap = remaps[part];
+				for(int i = bounds[part]; i < bounds[part + 1]; i++){
+					groupOf[i] = remap[groupOf[i]];
+				}
+			}
+
+		});
+		return new Grouping(keys.toArray(), counts.toArray(), groupOf);
+	}
+
+	/**
+	 * <p> ##################################################### </p>
+	 * <p> @描述：一段元素的局部分组 </p>
+	 * <p> @作者：fancy </p>
+	 * <p> @邮箱：fancores@163.com </p>
+	 * <p> @日期：2014-07-02 </p>
+	 * <br> ##################################################### </p>
+	 */
+	private static final class Part {
+
+		/** <p><b><em> 关键字的值 -> 局部分组序号 </b></em></p> */
+		private final Map<Object, Integer> groups = new HashMap<Object, Integer>();
+		/** <p><b><em> 各局部分组的关键字的值, 按首次出现的先后排列, 下标为局部分组序号 </b></em></p> */
+		private final List<Object> keys = new ArrayList<Object>();
+		/** <p><b><em> 各局部分组的元素数量 </b></em></p> */
+		private final IntArrayList counts = new IntArrayList();
+
+		/** <p><b><em> 为 [from, to) 区间的元素分组, 局部分组序号写入 groupOf。分组的数量事先未知, 散列表随分组增加扩容 </b></em></p> */
+		Part(Object[] source, PropertyAccessor accessor, int from, int to, int[] groupOf){
+			for(int i = from; i < to; i++){
+				Object key = accessor.get(source[i]);
+				Integer group = groups.get(key);
+				if(group == null){
+					group = Integer.valueOf(counts.size());
+					groups.put(key, group);
+					keys.add(key);
+					counts.add(0);
+				}
+				int index = group.intValue();
+				counts.set(index, counts.get(index) + 1);
+				groupOf[i] = index;
+			}
+		}
+
+		/** <p><b><em> 各局部分组的关键字的值, 下标为局部分组序号 </b></em></p> */
+		Object[] keys(){
+			return keys.toArray();
+		}
+	}
+}
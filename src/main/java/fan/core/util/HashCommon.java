@@ -0,0 +1,55 @@
+package fan.core.util;
+/**
+ * <p> ##################################################### </p>
+ * <p> @描述：开放寻址散列表的公共算法。散列表容量为 2 的幂, 以线性探测解决冲突 </p>
+ * <p> @作者：fancy </p>
+ * <p> @邮箱：fancores@163.com </p>
+ * <p> @日期：2014-06-28 </p>
+ * <br> ##################################################### </p>
+ */
+final class HashCommon {
+
+	/** <p><b><em> 默认的装载因子 </b></em></p> */
+	static final float DEFAULT_LOAD_FACTOR = 0.75f;
+	/** <p><b><em> 最大的散列表容量 </b></em></p> */
+	static final int MAX_CAPACITY = 1 << 30;
+	/** <p><b><em> 黄金分割数, 用于打散散列值 </b></em></p> */
+	private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+	private HashCommon(){
+
+	}
+
+	/** <p><b><em> 打散 long 值的散列值, 使连续的 ID 均匀分布在散列表中 </b></em></p> */
+	static int mix(long key){
+		return (int) mixLong(key);
+	}
+
+	/** <p><b><em> 打散 long 值的散列值, 返回 64 位散列值, 用于容量超出 int 范围的散列表 </b></em></p> */
+	static long mixLong(long key){
+		long hash = key * GOLDEN_RATIO;
+		return hash ^ (hash >>> 32);
+	}
+
+	/** <p><b><em> 打散对象的散列值 </b></em></p> */
+	static int mix(int hash){
+		int h = hash * (int) GOLDEN_RATIO;
+		return h ^ (h >>> 16);
+	}
+
+	/** <p><b><em> 容纳 expectedSize 个元素且不超过装载因子所需的散列表容量, 为 2 的幂 </b></em></p> */
+	static int tableSize(int expectedSize, float loadFactor){
+		if(expectedSize < 0){
+			throw new IllegalArgumentException("expectedSize must not be negative.");
+		}
+		long required = (long) Math.ceil(expectedSize / (double) loadFactor);
+		if(required >= MAX_CAPACITY){
+			return MAX_CAPACITY;
+		}
+		int capacity = 2;
+		while(capacity < required){
+			capacity <<= 1;
+		}
+		return capacity;
+	}
+}
@@ -0,0 +1,331 @@
+package fan.core.util;
+
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Set;
+/**
+ * <p> ##################################################### </p>
+ * <p> @描述：紧凑的不可变集合。元素按插入顺序存放在数组中, 没有逐个元素的节点或 Entry 对象 </p>
+ * <p> 不超过 SMALL_SIZE 个元素时按顺序比较查找; 更多元素时附带一个开放寻址的下标表, 线性探测, 装载因子不超过 0.5。
+ *     所有字段在构造后不再修改, 可以不加同步地在线程间共享。修改方法抛出 UnsupportedOperationException </p>
+ * <p> @作者：fancy </p>
+ * <p> @邮箱：fancores@163.com </p>
+ * <p> @日期：2014-07-01 </p>
+ * <br> ##################################################### </p>
+ */
+final class ImmutableCollections {
+
+	/** <p><b><em> 不超过此数量的元素按顺序比较查找, 不建下标表 </b></em></p> */
+	static final int SMALL_SIZE = 8;
+	/** <p><b><em> 下标表的装载因子 </b></em></p> */
+	private static final float TABLE_LOAD_FACTOR = 0.5f;
+	/** <p><b><em> 空数组 </b></em></p> */
+	private static final Object[] EMPTY = new Object[0];
+
+	private ImmutableCollections(){
+
+	}
+
+	/** <p><b><em> 以数组创建不可变列表。数组由调用方移交, 之后不能再修改 </b></em></p> */
+	static <E> ImmutableList<E> listOf(Object[] elements){
+		return new ImmutableList<E>(elements.length == 0 ? EMPTY : elements);
+	}
+
+	/** <p><b><em> 以数组中的元素创建不可变集合, 重复的元素只保留第一个。数组由调用方移交, 之后不能再修改 </b></em></p> */
+	static <E> ImmutableSet<E> setOf(Object[] keys){
+		int[] table = keys.length > SMALL_SIZE ? newTable(keys.length) : null;
+		int size = distinct(keys, null, table);
+		return new ImmutableSet<E>(trim(keys, size), table);
+	}
+
+	/**
+	 * <p><b><em> 以两个等长数组中的键值对创建不可变散列表, 重复的键保留第一次出现的位置和最后一次出现的值 </b></em></p>
+	 * <p> 数组由调用方移交, 之后不能再修改 </p>
+	 */
+	static <K, V> ImmutableMap<K, V> mapOf(Object[] keys, Object[] values){
+		int[] table = keys.length > SMALL_SIZE ? newTable(keys.length) : null;
+		int size = distinct(keys, values, table);
+		return new ImmutableMap<K, V>(trim(keys, size), trim(values, size), table);
+	}
+
+	/** <p><b><em> 去除重复的键, 就地压缩 keys 和 values, 并将不重复的键登记到下标表, 返回不重复的键的数量 </b></em></p> */
+	private static int distinct(Object[] keys, Object[] values, int[] table){
+		int size = 0;
+		for(int i = 0; i < keys.length; i++){
+			Object key = keys[i];
+			int index = table == null ? scan(keys, size, key) : probe(table, keys, key, size);
+			if(index < 0){
+				keys[size] = key;
+				if(values != null){
+					values[size] = values[i];
+				}
+				size++;
+			}else if(values != null){
+				values[index] = values[i];
+			}
+		}
+		return size;
+	}
+
+	/** <p><b><em> 查找键在 keys 中的下标, 键不存在返回 -1 </b></em></p> */
+	static int indexOf(Object[] keys, int[] table, Object key){
+		return table == null ? scan(keys, keys.length, key) : probe(table, keys, key, -1);
+	}
+
+	/** <p><b><em> 在 keys 的前 size 个元素中按顺序查找键 </b></em></p> */
+	private static int scan(Object[] keys, int size, Object key){
+		for(int i = 0; i < size; i++){
+			Object current = keys[i];
+			if(current == key || (key != null && key.equals(current))){
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * <p><b><em> 在下标表中查找键, 键不存在返回 -1 </b></em></p>
+	 * <p> insert 不小于 0 时, 键不存在则将下标 insert 登记到探测结束的空槽中。下标表中存放的是下标 + 1, 0 表示空槽 </p>
+	 */
+	private static int probe(int[] table, Object[] keys, Object key, int insert){
+		int mask = table.length - 1;
+		for(int slot = hash(key) & mask; ; slot = (slot + 1) & mask){
+			int index = table[slot] - 1;
+			if(index < 0){
+				if(insert >= 0){
+					table[slot] = insert + 1;
+				}
+				return -1;
+			}
+			Object current = keys[index];
+			if(current == key || (key != null && key.equals(current))){
+				return index;
+			}
+		}
+	}
+
+	/** <p><b><em> 打散键的散列值, null 的散列值为 0 </b></em></p> */
+	private static int hash(Object key){
+		return key == null ? 0 : HashCommon.mix(key.hashCode());
+	}
+
+	/** <p><b><em> 创建能登记 size 个键的下标表 </b></em></p> */
+	private static int[] newTable(int size){
+		return new int[HashCommon.tableSize(size, TABLE_LOAD_FACTOR)];
+	}
+
+	/** <p><b><em> 截取数组的前 size 个元素 </b></em></p> */
+	private static Object[] trim(Object[] array, int size){
+		return size == 0 ? EMPTY : size == array.length ? array : Arrays.copyOf(array, size);
+	}
+
+	/**
+	 * <p> ##################################################### </p>
+	 * <p> @描述：以数组存放元素的不可变列表 </p>
+	 * <p> @作者：fancy </p>
+	 * <p> @邮箱：fancores@163.com </p>
+	 * <p> @日期：2014-07-01 </p>
+	 * <br> ##################################################### </p>
+	 */
+	static final class ImmutableList<E> extends AbstractList<E> implements RandomAccess {
+
+		private final Object[] elements;
+
+		ImmutableList(Object[] elements){
+			this.elements = elements;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public E get(int index) {
+			return (E) elements[index];
+		}
+
+		@Override
+		public int size() {
+			return elements.length;
+		}
+
+		@Override
+		public Object[] toArray() {
+			return elements.clone();
+		}
+	}
+
+	/**
+	 * <p> ##################################################### </p>
+	 * <p> @描述：以数组存放元素的不可变集合, 按插入顺序遍历 </p>
+	 * <p> @作者：fancy </p>
+	 * <p> @邮箱：fancores@163.com </p>
+	 * <p> @日期：2014-07-01 </p>
+	 * <br> ##################################################### </p>
+	 */
+	static final class ImmutableSet<E> extends AbstractSet<E> {
+
+		/** <p><b><em> 元素, 按插入顺序存放 </b></em></p> */
+		private final Object[] elements;
+		/** <p><b><em> 开放寻址的下标表, 元素较少时为 null </b></em></p> */
+		private final int[] table;
+
+		ImmutableSet(Object[] elements, int[] table){
+			this.elements = elements;
+			this.table = table;
+		}
+
+		@Override
+		public boolean contains(Object element) {
+			return indexOf(elements, table, element) >= 0;
+		}
+
+		@Override
+		public Iterator<E> iterator() {
+			return new ArrayIterator<E>(elements);
+		}
+
+		@Override
+		public int size() {
+			return elements.length;
+		}
+
+		@Override
+		public Object[] toArray() {
+			return elements.clone();
+		}
+	}
+
+	/**
+	 * <p> ##################################################### </p>
+	 * <p> @描述：以两个数组分别存放键和值的不可变散列表, 按插入顺序遍历。遍历时才创建 Entry 对象 </p>
+	 * <p> @作者：fancy </p>
+	 * <p> @邮箱：fancores@163.com </p>
+	 * <p> @日期：2014-07-01 </p>
+	 * <br> ##################################################### </p>
+	 */
+	static final class ImmutableMap<K, V> extends AbstractMap<K, V> {
+
+		/** <p><b><em> 键, 按插入顺序存放 </b></em></p> */
+		private final Object[] keys;
+		/** <p><b><em> 与键同一下标的值 </b></em></p> */
+		private final Object[] values;
+		/** <p><b><em> 开放寻址的下标表, 键较少时为 null </b></em></p> */
+		private final int[] table;
+
+		ImmutableMap(Object[] keys, Object[] values, int[] table){
+			this.keys = keys;
+			this.values = values;
+			this.table = table;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public V get(Object key) {
+			int index = indexOf(keys, table, key);
+			return index < 0 ? null : (V) values[index];
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return indexOf(keys, table, key) >= 0;
+		}
+
+		@Override
+		public int size() {
+			return keys.length;
+		}
+
+		@Override
+		public Set<K> keySet() {
+			return new ImmutableSet<K>(keys, table);
+		}
+
+		@Override
+		public Collection<V> values() {
+			return new ImmutableList<V>(values);
+		}
+
+		@Override
+		public Set<Map.Entry<K, V>> entrySet() {
+			return new AbstractSet<Map.Entry<K, V>>() {
+
+				@Override
+				public Iterator<Map.Entry<K, V>> iterator() {
+					return new Iterator<Map.Entry<K, V>>() {
+
+						private int index;
+
+						@Override
+						public boolean hasNext() {
+							return index < keys.length;
+						}
+
+						@Override
+						@SuppressWarnings("unchecked")
+						public Map.Entry<K, V> next() {
+							if(index >= keys.length){
+								throw new NoSuchElementException();
+							}
+							int current = index++;
+							return new AbstractMap.SimpleImmutableEntry<K, V>((K) keys[current], (V) values[current]);
+						}
+
+						@Override
+						public void remove() {
+							throw new UnsupportedOperationException();
+						}
+
+					};
+				}
+
+				@Override
+				public int size() {
+					return keys.length;
+				}
+
+			};
+		}
+	}
+
+	/**
+	 * <p> ##################################################### </p>
+	 * <p> @描述：数组的只读迭代器 </p>
+	 * <p> @作者：fancy </p>
+	 * <p> @邮箱：fancores@163.com </p>
+	 * <p> @日期：2014-07-01 </p>
+	 * <br> ##################################################### </p>
+	 */
+	private static final class ArrayIterator<E> implements Iterator<E> {
+
+		private final Object[] elements;
+		private int index;
+
+		ArrayIterator(Object[] elements){
+			this.elements = elements;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return index < elements.length;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public E next() {
+			if(index >= elements.length){
+				throw new NoSuchElementException();
+			}
+			return (E) elements[index++];
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
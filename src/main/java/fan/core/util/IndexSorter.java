@@ -0,0 +1,220 @@
+package fan.core.util;
+/**
+ * <p> ##################################################### </p>
+ * <p> @描述：元素下标的稳定排序算法。关键字预先提取后, 排序的是元素下标, 比较的是下标所对应的关键字 </p>
+ * <p> 先识别输入中已有的升序段（严格降序段就地反转）, 不足 MIN_RUN 的段以二分插入排序补足,
+ *     再逐轮两两归并。已有序的输入只需 O(n) 次比较, 最坏情况 O(n log n), 不使用递归 </p>
+ * <p> 比较结果相等的元素保持原有的先后顺序, 因此多次按不同关键字排序的结果可以叠加 </p>
+ * <p> @作者：fancy </p>
+ * <p> @邮箱：fancores@163.com </p>
+ * <p> @日期：2014-06-14 </p>
+ * <br> ##################################################### </p>
+ */
+final class IndexSorter {
+
+	/** <p><b><em> 最短的有序段, 短于此长度的段以插入排序补足 </b></em></p> */
+	static final int MIN_RUN = 32;
+
+	private IndexSorter(){
+
+	}
+
+	/**
+	 * <p> ##################################################### </p>
+	 * <p> @描述：按下标比较两关键字大小的比较器 </p>
+	 * <p> @作者：fancy </p>
+	 * <p> @邮箱：fancores@163.com </p>
+	 * <p> @日期：2014-06-14 </p>
+	 * <br> ##################################################### </p>
+	 */
+	interface IndexComparator {
+
+		/** <p><b><em> 比较下标所对应的两关键字的大小 </b></em></p> */
+		int compare(int i, int j);
+	}
+
+	/** <p><b><em> 创建 0 到 size - 1 的下标数组 </b></em></p> */
+	static int[] identity(int size){
+		int[] order = new int[size];
+		for(int i = 0; i < size; i++){
+			order[i] = i;
+		}
+		return order;
+	}
+
+	/** <p><b><em> 稳定排序整个下标数组 </b></em></p> */
+	static void sort(int[] order, IndexComparator comparator){
+		sort(order, 0, order.length, new int[order.length], comparator);
+	}
+
+	/** <p><b><em> 稳定排序下标数组的 [from, to) 区间, buffer 至少与 order 等长, 只使用 [from, to) 区间 </b></em></p> */
+	static void sort(int[] order, int from, int to, int[] buffer, IndexComparator comparator){
+		int size = to - from;
+		if(size < 2){
+			return;
+		}
+		if(size <= MIN_RUN){
+			binaryInsertionSort(order, from, to, countRunAndMakeAscending(order, from, to, comparator), comparator);
+			return;
+		}
+		/* 识别有序段 */
+		int[] runs = new int[size / MIN_RUN + 2];
+		int runCount = 0;
+		runs[runCount++] = from;
+		for(int low = from; low < to; ){
+			int runEnd = countRunAndMakeAscending(order, low, to, comparator);
+			int forced = Math.min(low + MIN_RUN, to);
+			if(runEnd < forced){
+				binaryInsertionSort(order, low, forced, runEnd, comparator);
+				runEnd = forced;
+			}
+			runs[runCount++] = runEnd;
+			low = runEnd;
+		}
+		/* 逐轮两两归并相邻的有序段, runs[0 .. runCount) 为各段的边界 */
+		while(runCount > 2){
+			int merged = 1;
+			for(int i = 0; i + 2 < runCount; i += 2){
+				merge(order, runs[i], runs[i + 1], runs[i + 2], buffer, comparator);
+				runs[merged++] = runs[i + 2];
+			}
+			if(runCount % 2 == 0){
+				runs[merged++] = runs[runCount - 1];
+			}
+			runCount = merged;
+		}
+	}
+
+	/**
+	 * <p><b><em> 并行稳定排序整个下标数组 </b></em></p>
+	 * <p> 下标数组均分为 parts 段, 各段并行排序后, 逐轮并行两两归并相邻的段 </p>
+	 */
+	static void parallelSort(final int[] order, int parts, final IndexComparator comparator){
+		if(parts <= 1 || order.length <= MIN_RUN * parts){
+			sort(order, comparator);
+			return;
+		}
+		final int[] buffer = new int[order.length];
+		final int[] bounds = ParallelExecutor.split(order.length, parts);
+		final int segments = parts;
+		ParallelExecutor.invokeAll(parts, new ParallelExecutor.Task() {
+
+			@Override
+			public void run(int part) {
+				sort(order, bounds[part], bounds[part + 1], buffer, comparator);
+			}
+
+		});
+		for(int width = 1; width < segments; width *= 2){
+			final int step = width;
+			ParallelExecutor.invokeAll((segments + 2 * step - 1) / (2 * step), new ParallelExecutor.Task() {
+
+				@Override
+				public void run(int part) {
+					int low = part * 2 * step;
+					int middle = Math.min(low + step, segments);
+					int high = Math.min(low + 2 * step, segments);
+					merge(order, bounds[low], bounds[middle], bounds[high], buffer, comparator);
+				}
+
+			});
+		}
+	}
+
+	/**
+	 * <p><b><em> 稳定归并两个相邻的有序区间 [low, middle) 和 [middle, high) </b></em></p>
+	 * <p> 只使用 buffer 的 [low, middle) 区间, 因此不相交的区间可以共用同一个 buffer 并发归并 </p>
+	 */
+	static void merge(int[] order, int low, int middle, int high, int[] buffer, IndexComparator comparator){
+		if(low >= middle || middle >= high || comparator.compare(order[middle - 1], order[middle]) <= 0){
+			return;
+		}
+		System.arraycopy(order, low, buffer, low, middle - low);
+		int left = low, right = middle, target = low;
+		while(left < middle && right < high){
+			if(comparator.compare(buffer[left], order[right]) <= 0){
+				order[target++] = buffer[left++];
+			}else {
+				order[target++] = order[right++];
+			}
+		}
+		while(left < middle){
+			order[target++] = buffer[left++];
+		}
+	}
+
+	/** <p><b><em> 堆元素上浮, 比较结果较大的元素靠近堆顶 </b></em></p> */
+	static void siftUp(int[] heap, int index, IndexComparator comparator){
+		int slot = heap[index];
+		while(index > 0){
+			int parent = (index - 1) >>> 1;
+			if(comparator.compare(slot, heap[parent]) <= 0){
+				break;
+			}
+			heap[index] = heap[parent];
+			index = parent;
+		}
+		heap[index] = slot;
+	}
+
+	/** <p><b><em> 堆顶元素下沉, 比较结果较大的元素靠近堆顶 </b></em></p> */
+	static void siftDown(int[] heap, int size, IndexComparator comparator){
+		int index = 0, slot = heap[0];
+		while(true){
+			int child = 2 * index + 1;
+			if(child >= size){
+				break;
+			}
+			if(child + 1 < size && comparator.compare(heap[child + 1], heap[child]) > 0){
+				child++;
+			}
+			if(comparator.compare(slot, heap[child]) >= 0){
+				break;
+			}
+			heap[index] = heap[child];
+			index = child;
+		}
+		heap[index] = slot;
+	}
+
+	/** <p><b><em> 从 low 开始识别最长的有序段, 严格降序的段就地反转为升序, 返回有序段的结束位置 </b></em></p> */
+	private static int countRunAndMakeAscending(int[] order, int low, int high, IndexComparator comparator){
+		int runEnd = low + 1;
+		if(runEnd == high){
+			return high;
+		}
+		if(comparator.compare(order[runEnd++], order[low]) < 0){
+			while(runEnd < high && comparator.compare(order[runEnd], order[runEnd - 1]) < 0){
+				runEnd++;
+			}
+			for(int i = low, j = runEnd - 1; i < j; i++, j--){
+				int temp = order[i];
+				order[i] = order[j];
+				order[j] = temp;
+			}
+		}else {
+			while(runEnd < high && comparator.compare(order[runEnd], order[runEnd - 1]) >= 0){
+				runEnd++;
+			}
+		}
+		return runEnd;
+	}
+
+	/** <p><b><em> 二分插入排序 [low, high) 区间, [low, start) 区间已有序 </b></em></p> */
+	private static void binaryInsertionSort(int[] order, int low, int high, int start, IndexComparator comparator){
+		for(int i = start; i < high; i++){
+			int pivot = order[i];
+			int left = low, right = i;
+			while(left < right){
+				int middle = (left + right) >>> 1;
+				if(comparator.compare(pivot, order[middle]) < 0){
+					right = middle;
+				}else {
+					left = middle + 1;
+				}
+			}
+			System.arraycopy(order, left, order, left + 1, i - left);
+			order[left] = pivot;
+		}
+	}
+}
@@ -0,0 +1,147 @@
+package fan.core.util;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+/**
+ * <p> ##################################################### </p>
+ * <p> @描述：对象创建器。构造方法只解析一次并设置为可访问, 之后反复创建对象不再查找构造方法 </p>
+ * <p> 由 Reflection.getInstantiator 按类和参数类型缓存获取; 无参构造方法调用 newInstance() 时不创建参数数组。
+ *     Reflection.getAllocator 获取的创建器不调用任何构造方法, 字段保持默认值, 字段的初始化语句也不执行,
+ *     适合没有可用构造方法、字段随后由反序列化写入的类 </p>
+ * <pre>
+ * >>> <b><em>e.g.</em></b>
+ * >>> Instantiator&lt;User&gt; users = Reflection.getInstantiator(User.class);
+ * >>> for(Row row : rows){
+ * >>>     User user = users.newInstance();
+ * >>>     . . . . . .
+ * >>> }
+ * >>> Instantiator&lt;Children&gt; children = Reflection.getInstantiator(Children.class, String.class, String.class, double.class);
+ * >>> Children child = children.newInstance("zhong rong", "fan", 1.22);
+ * </pre>
+ * <p> @作者：fancy </p>
+ * <p> @邮箱：fancores@163.com </p>
+ * <p> @日期：2014-07-09 </p>
+ * <br> ##################################################### </p>
+ */
+public abstract class Instantiator<T> {
+
+	/** <p><b><em> 空参数 </b></em></p> */
+	private static final Object[] NO_ARGS = new Object[0];
+	/** <p><b><em> Unsafe.allocateInstance(Class) 方法, 不可用时为 null </b></em></p> */
+	private static final Method ALLOCATE_INSTANCE;
+
+	static {
+		Method allocateInstance = null;
+		if(DirectMemory.UNSAFE != null){
+			try {
+				allocateInstance = DirectMemory.UNSAFE.getClass().getMethod("allocateInstance", Class.class);
+			} catch (Exception e) { /* 不可用时不支持不经构造方法创建对象 */ }
+		}
+		ALLOCATE_INSTANCE = allocateInstance;
+	}
+
+	/** <p><b><em> 创建的对象的类 </b></em></p> */
+	private final Class<T> type;
+
+	Instantiator(Class<T> type){
+		this.type = type;
+	}
+
+	/** <p><b><em> 获取创建的对象的类 </b></em></p> */
+	public Class<T> getType() {
+		return type;
+	}
+
+	/** <p><b><em> 创建对象, 构造方法抛出的异常包装为 ExecutetimeException </b></em></p> */
+	public abstract T newInstance(Object... args);
+
+	/** <p><b><em> 以无参构造方法创建对象 </b></em></p> */
+	public T newInstance(){
+		return newInstance(NO_ARGS);
+	}
+
+	/** <p><b><em> 以构造方法创建对象的创建器 </b></em></p> */
+	static <T> Instantiator<T> ofConstructor(Constructor<T> constructor){
+		return new ConstructorInstantiator<T>(constructor);
+	}
+
+	/**
+	 * <p><b><em> 不经构造方法创建对象的创建器, 类不能实例化或 Unsafe 不可用时返回 null </b></em></p>
+	 * <p> 枚举（包括带类体的枚举常量的类）的实例只能是声明的常量, 分配出的对象会破坏枚举的唯一性, 同样返回 null </p>
+	 */
+	static <T> Instantiator<T> ofAllocation(Class<T> type){
+		int modifiers = type.getModifiers();
+		if(ALLOCATE_INSTANCE == null || type.isPrimitive() || type.isArray() || type.isInterface() || Enum.class.isAssignableFrom(type)
+			|| Modifier.isAbstract(modifiers)){
+			return null;
+		}
+		return new AllocatingInstantiator<T>(type);
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "(" + type.getName() + ")";
+	}
+
+	/**
+	 * <p> ##################################################### </p>
+	 * <p> @描述：以可访问的构造方法创建对象 </p>
+	 * <p> @作者：fancy </p>
+	 * <p> @邮箱：fancores@163.com </p>
+	 * <p> @日期：2014-07-09 </p>
+	 * <br> ##################################################### </p>
+	 */
+	static final class ConstructorInstantiator<T> extends Instantiator<T> {
+
+		final Constructor<T> constructor;
+
+		ConstructorInstantiator(Constructor<T> constructor){
+			super(constructor.getDeclaringClass());
+			this.constructor = constructor;
+		}
+
+		@Override
+		public T newInstance(Object... args) {
+			try {
+				return constructor.newInstance(args);
+			} catch (InvocationTargetException e) {
+				throw new ExecutetimeException(e.getCause());
+			} catch (InstantiationException e) {
+				throw new ExecutetimeException(e);
+			} catch (IllegalAccessException e) {
+				throw new ExecutetimeException(e);
+			}
+		}
+	}
+
+	/**
+	 * <p> ##################################################### </p>
+	 * <p> @描述：通过 sun.misc.Unsafe.allocateInstance 分配对象, 不调用构造方法 </p>
+	 * <p> @作者：fancy </p>
+	 * <p> @邮箱：fancores@163.com </p>
+	 * <p> @日期：2014-07-09 </p>
+	 * <br> ##################################################### </p>
+	 */
+	private static final class AllocatingInstantiator<T> extends Instantiator<T> {
+
+		AllocatingInstantiator(Class<T> type){
+			super(type);
+		}
+
+		@Override
+		public T newInstance(Object... args) {
+			if(args != null && args.length > 0){
+				throw new IllegalArgumentException(getType().getName() + " 不经构造方法创建, 不接受参数");
+			}
+			try {
+				return getType().cast(ALLOCATE_INSTANCE.invoke(DirectMemory.UNSAFE, getType()));
+			} catch (InvocationTargetException e) {
+				throw new ExecutetimeException(e.getCause());
+			} catch (IllegalAccessException e) {
+				throw new ExecutetimeException(e);
+			}
+		}
+	}
+}
@@ -0,0 +1,221 @@
+package fan.core.util;
+
+import java.util.Arrays;
+/**
+ * <p> ##################################################### </p>
+ * <p> @描述：long 元素的动态数组。元素直接存放在 long[] 中, 不装箱, 每个元素只占 8 字节 </p>
+ * <pre>
+ * >>> <b><em>e.g.</em></b>
+ * >>> LongArrayList ids = Container.newLongList();
+ * >>> ids.add(10086L);
+ * >>> ids.add(10010L);
+ * >>> ids.sort();
+ * >>> Testing.printObject(ids.toArray());
+ * </pre>
+ * <p> @作者：fancy </p>
+ * <p> @邮箱：fancores@163.com </p>
+ * <p> @日期：2014-06-28 </p>
+ * <br> ##################################################### </p>
+ */
+public class LongArrayList {
+
+	/** <p><b><em> 默认的初始容量 </b></em></p> */
+	private static final int DEFAULT_CAPACITY = 10;
+	/** <p><b><em> 空数组, 首次添加元素时才分配空间 </b></em></p> */
+	private static final long[] EMPTY = new long[0];
+
+	/** <p><b><em> 元素 </b></em></p> */
+	private long[] elements;
+	/** <p><b><em> 元素数量 </b></em></p> */
+	private int size;
+
+	public LongArrayList(){
+		this.elements = EMPTY;
+	}
+
+	public LongArrayList(int initialCapacity){
+		if(initialCapacity < 0){
+			throw new IllegalArgumentException("initialCapacity must not be negative.");
+		}
+		this.elements = initialCapacity == 0 ? EMPTY : new long[initialCapacity];
+	}
+
+	/** <p><b><em> 以数组中的元素创建动态数组 </b></em></p> */
+	public static LongArrayList of(long... values){
+		LongArrayList list = new LongArrayList(values.length);
+		list.addAll(values);
+		return list;
+	}
+
+	/** <p><b><em> 元素数量 </b></em></p> */
+	public int size(){
+		return size;
+	}
+
+	/** <p><b><em> 是否没有元素 </b></em></p> */
+	public boolean isEmpty(){
+		return size == 0;
+	}
+
+	/** <p><b><em> 获取下标处的元素 </b></em></p> */
+	public long get(int index){
+		checkIndex(index);
+		return elements[index];
+	}
+
+	/** <p><b><em> 替换下标处的元素, 返回原有的元素 </b></em></p> */
+	public long set(int index, long value){
+		checkIndex(index);
+		long previous = elements[index];
+		elements[index] = value;
+		return previous;
+	}
+
+	/** <p><b><em> 在末尾添加元素 </b></em></p> */
+	public void add(long value){
+		if(size == elements.length){
+			grow(size + 1);
+		}
+		elements[size++] = value;
+	}
+
+	/** <p><b><em> 在下标处插入元素, 其后的元素后移 </b></em></p> */
+	public void add(int index, long value){
+		if(index < 0 || index > size){
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		if(size == elements.length){
+			grow(size + 1);
+		}
+		System.arraycopy(elements, index, elements, index + 1, size - index);
+		elements[index] = value;
+		size++;
+	}
+
+	/** <p><b><em> 在末尾添加数组中的全部元素 </b></em></p> */
+	public void addAll(long... values){
+		ensureCapacity(size + values.length);
+		System.arraycopy(values, 0, elements, size, values.length);
+		size += values.length;
+	}
+
+	/** <p><b><em> 在末尾添加另一个动态数组中的全部元素 </b></em></p> */
+	public void addAll(LongArrayList other){
+		ensureCapacity(size + other.size);
+		System.arraycopy(other.elements, 0, elements, size, other.size);
+		size += other.size;
+	}
+
+	/** <p><b><em> 移除下标处的元素, 其后的元素前移, 返回被移除的元素 </b></em></p> */
+	public long removeAt(int index){
+		checkIndex(index);
+		long previous = elements[index];
+		System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+		size--;
+		return previous;
+	}
+
+	/** <p><b><em> 元素第一次出现的下标, 不存在返回 -1 </b></em></p> */
+	public int indexOf(long value){
+		for(int i = 0; i < size; i++){
+			if(elements[i] == value){
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/** <p><b><em> 是否包含元素 </b></em></p> */
+	public boolean contains(long value){
+		return indexOf(value) >= 0;
+	}
+
+	/** <p><b><em> 移除全部元素, 保留已分配的空间 </b></em></p> */
+	public void clear(){
+		size = 0;
+	}
+
+	/** <p><b><em> 升序排序全部元素 </b></em></p> */
+	public void sort(){
+		Arrays.sort(elements, 0, size);
+	}
+
+	/** <p><b><em> 确保至少能容纳 minCapacity 个元素 </b></em></p> */
+	public void ensureCapacity(int minCapacity){
+		if(minCapacity > elements.length){
+			grow(minCapacity);
+		}
+	}
+
+	/** <p><b><em> 释放多余的空间 </b></em></p> */
+	public void trimToSize(){
+		if(size < elements.length){
+			elements = size == 0 ? EMPTY : Arrays.copyOf(elements, size);
+		}
+	}
+
+	/** <p><b><em> 复制全部元素到新数组 </b></em></p> */
+	public long[] toArray(){
+		return Arrays.copyOf(elements, size);
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = 1;
+		for(int i = 0; i < size; i++){
+			hash = 31 * hash + (int) (elements[i] ^ (elements[i] >>> 32));
+		}
+		return hash;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if(other == this){
+			return true;
+		}
+		if(!(other instanceof LongArrayList)){
+			return false;
+		}
+		LongArrayList list = (LongArrayList) other;
+		if(size != list.size){
+			return false;
+		}
+		for(int i = 0; i < size; i++){
+			if(elements[i] != list.elements[i]){
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("[");
+		for(int i = 0; i < size; i++){
+			builder.append(i == 0 ? "" : ", ").append(elements[i]);
+		}
+		return builder.append(']').toString();
+	}
+
+	/** <p><b><em> 扩容为原容量的 1.5 倍, 不足 minCapacity 时扩容到 minCapacity </b></em></p> */
+	private void grow(int minCapacity){
+		if(minCapacity < 0){
+			throw new OutOfMemoryError();
+		}
+		int capacity = elements.length + (elements.length >> 1);
+		if(capacity < minCapacity){
+			capacity = Math.max(minCapacity, DEFAULT_CAPACITY);
+		}
+		if(capacity < 0){
+			capacity = Integer.MAX_VALUE - 8;
+		}
+		elements = Arrays.copyOf(elements, capacity);
+	}
+
+	/** <p><b><em> 检查下标是否越界 </b></em></p> */
+	private void checkIndex(int index){
+		if(index < 0 || index >= size){
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+	}
+}
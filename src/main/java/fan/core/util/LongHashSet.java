@@ -0,0 +1,241 @@
+package fan.core.util;
+
+import java.util.Arrays;
+/**
+ * <p> ##################################################### </p>
+ * <p> @描述：long 元素的散列集合。开放寻址、线性探测, 元素直接存放在 long[] 中, 不装箱, 没有逐个元素的节点对象 </p>
+ * <p> 散列表中以 0 表示空槽, 元素 0 单独记录。移除元素时将其后同一探测序列上的元素前移, 不留删除标记 </p>
+ * <pre>
+ * >>> <b><em>e.g.</em></b>
+ * >>> LongHashSet ids = Container.newLongSet(100000);
+ * >>> ids.add(10086L);
+ * >>> ids.contains(10086L);
+ * >>> <b><em>output look like :</em></b>
+ * >>> true
+ * </pre>
+ * <p> @作者：fancy </p>
+ * <p> @邮箱：fancores@163.com </p>
+ * <p> @日期：2014-06-28 </p>
+ * <br> ##################################################### </p>
+ */
+public class LongHashSet {
+
+	/** <p><b><em> 散列表, 0 表示空槽 </b></em></p> */
+	private long[] keys;
+	/** <p><b><em> 是否包含元素 0 </b></em></p> */
+	private boolean containsZero;
+	/** <p><b><em> 元素数量, 包括元素 0 </b></em></p> */
+	private int size;
+	/** <p><b><em> 散列表中的元素数量超过此值时扩容 </b></em></p> */
+	private int threshold;
+
+	public LongHashSet(){
+		this(0);
+	}
+
+	/** <p><b><em> 创建能容纳 expectedSize 个元素而不扩容的散列集合 </b></em></p> */
+	public LongHashSet(int expectedSize){
+		allocate(HashCommon.tableSize(expectedSize, HashCommon.DEFAULT_LOAD_FACTOR));
+	}
+
+	/** <p><b><em> 以数组中的元素创建散列集合 </b></em></p> */
+	public static LongHashSet of(long... values){
+		LongHashSet set = new LongHashSet(values.length);
+		for(long value : values){
+			set.add(value);
+		}
+		return set;
+	}
+
+	/** <p><b><em> 元素数量 </b></em></p> */
+	public int size(){
+		return size;
+	}
+
+	/** <p><b><em> 散列表的槽位数量, 不包括元素 0 </b></em></p> */
+	int capacity(){
+		return keys.length;
+	}
+
+	/** <p><b><em> 是否没有元素 </b></em></p> */
+	public boolean isEmpty(){
+		return size == 0;
+	}
+
+	/** <p><b><em> 是否包含元素 </b></em></p> */
+	public boolean contains(long value){
+		if(value == 0){
+			return containsZero;
+		}
+		int mask = keys.length - 1;
+		for(int slot = HashCommon.mix(value) & mask; ; slot = (slot + 1) & mask){
+			long key = keys[slot];
+			if(key == value){
+				return true;
+			}
+			if(key == 0){
+				return false;
+			}
+		}
+	}
+
+	/** <p><b><em> 添加元素, 元素已存在返回 false </b></em></p> */
+	public boolean add(long value){
+		if(value == 0){
+			if(containsZero){
+				return false;
+			}
+			containsZero = true;
+			size++;
+			return true;
+		}
+		int mask = keys.length - 1;
+		int slot = HashCommon.mix(value) & mask;
+		for(long key; (key = keys[slot]) != 0; slot = (slot + 1) & mask){
+			if(key == value){
+				return false;
+			}
+		}
+		checkFull();
+		keys[slot] = value;
+		if(++size - (containsZero ? 1 : 0) > threshold){
+			rehash(keys.length << 1);
+		}
+		return true;
+	}
+
+	/** <p><b><em> 移除元素, 元素不存在返回 false </b></em></p> */
+	public boolean remove(long value){
+		if(value == 0){
+			if(!containsZero){
+				return false;
+			}
+			containsZero = false;
+			size--;
+			return true;
+		}
+		int mask = keys.length - 1;
+		for(int slot = HashCommon.mix(value) & mask; ; slot = (slot + 1) & mask){
+			long key = keys[slot];
+			if(key == 0){
+				return false;
+			}
+			if(key == value){
+				shiftKeys(slot);
+				size--;
+				return true;
+			}
+		}
+	}
+
+	/** <p><b><em> 移除全部元素, 保留已分配的空间 </b></em></p> */
+	public void clear(){
+		Arrays.fill(keys, 0L);
+		containsZero = false;
+		size = 0;
+	}
+
+	/** <p><b><em> 复制全部元素到新数组, 元素的顺序不确定 </b></em></p> */
+	public long[] toArray(){
+		long[] values = new long[size];
+		int index = 0;
+		if(containsZero){
+			values[index++] = 0;
+		}
+		for(long key : keys){
+			if(key != 0){
+				values[index++] = key;
+			}
+		}
+		return values;
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = 0;
+		for(long key : keys){
+			hash += (int) (key ^ (key >>> 32));
+		}
+		return hash;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if(other == this){
+			return true;
+		}
+		if(!(other instanceof LongHashSet)){
+			return false;
+		}
+		LongHashSet set = (LongHashSet) other;
+		if(size != set.size || containsZero != set.containsZero){
+			return false;
+		}
+		for(long key : keys){
+			if(key != 0 && !set.contains(key)){
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("[");
+		long[] values = toArray();
+		for(int i = 0; i < values.length; i++){
+			builder.append(i == 0 ? "" : ", ").append(values[i]);
+		}
+		return builder.append(']').toString();
+	}
+
+	/** <p><b><em> 移除 slot 处的元素, 将其后同一探测序列上的元素前移填补空槽 </b></em></p> */
+	private void shiftKeys(int slot){
+		int mask = keys.length - 1;
+		for(int next = (slot + 1) & mask; ; next = (next + 1) & mask){
+			long key = keys[next];
+			if(key == 0){
+				keys[slot] = 0;
+				return;
+			}
+			int home = HashCommon.mix(key) & mask;
+			/* home 不在 (slot, next] 区间内时, 元素可以前移到 slot */
+			if(slot <= next ? (home <= slot || home > next) : (home <= slot && home > next)){
+				keys[slot] = key;
+				slot = next;
+			}
+		}
+	}
+
+	/** <p><b><em> 分配容量为 capacity 的散列表 </b></em></p> */
+	private void allocate(int capacity){
+		keys = new long[capacity];
+		threshold = capacity == HashCommon.MAX_CAPACITY ? capacity - 1 : (int) (capacity * HashCommon.DEFAULT_LOAD_FACTOR);
+	}
+
+	/** <p><b><em> 散列表已达最大容量且元素数量达到上限时不能再添加元素, 至少保留一个空槽以结束探测 </b></em></p> */
+	private void checkFull(){
+		if(keys.length == HashCommon.MAX_CAPACITY && size - (containsZero ? 1 : 0) >= threshold){
+			throw new IllegalStateException("LongHashSet is full.");
+		}
+	}
+
+	/** <p><b><em> 扩容并重新散列全部元素, 已达最大容量时不扩容 </b></em></p> */
+	private void rehash(int capacity){
+		if(keys.length == HashCommon.MAX_CAPACITY){
+			return;
+		}
+		long[] previous = keys;
+		allocate(capacity);
+		int mask = capacity - 1;
+		for(long key : previous){
+			if(key != 0){
+				int slot = HashCommon.mix(key) & mask;
+				while(keys[slot] != 0){
+					slot = (slot + 1) & mask;
+				}
+				keys[slot] = key;
+			}
+		}
+	}
+}
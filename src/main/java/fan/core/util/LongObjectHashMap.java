@@ -0,0 +1,352 @@
+package fan.core.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+/**
+ * <p> ##################################################### </p>
+ * <p> @描述：long 键的散列表。开放寻址、线性探测, 键和值分别存放在 long[] 和 Object[] 中, 键不装箱, 没有逐个键值对的节点对象 </p>
+ * <p> 散列表中以键 0 表示空槽, 键 0 的值单独记录。移除键时将其后同一探测序列上的键值对前移, 不留删除标记 </p>
+ * <pre>
+ * >>> <b><em>e.g.</em></b>
+ * >>> LongObjectHashMap&lt;User&gt; users = Container.newLongMap(100000);
+ * >>> users.put(user.getId(), user);
+ * >>> LongObjectHashMap.Cursor&lt;User&gt; cursor = users.cursor();
+ * >>> while(cursor.next()){
+ * >>>     System.out.println(cursor.key() + " = " + cursor.value());
+ * >>> }
+ * </pre>
+ * <p> @作者：fancy </p>
+ * <p> @邮箱：fancores@163.com </p>
+ * <p> @日期：2014-06-28 </p>
+ * <br> ##################################################### </p>
+ */
+public class LongObjectHashMap<V> {
+
+	/** <p><b><em> 键的散列表, 0 表示空槽 </b></em></p> */
+	private long[] keys;
+	/** <p><b><em> 与键同一下标的值 </b></em></p> */
+	private Object[] values;
+	/** <p><b><em> 是否包含键 0 </b></em></p> */
+	private boolean containsZero;
+	/** <p><b><em> 键 0 的值 </b></em></p> */
+	private V zeroValue;
+	/** <p><b><em> 键值对数量, 包括键 0 </b></em></p> */
+	private int size;
+	/** <p><b><em> 散列表中的键值对数量超过此值时扩容 </b></em></p> */
+	private int threshold;
+
+	public LongObjectHashMap(){
+		this(0);
+	}
+
+	/** <p><b><em> 创建能容纳 expectedSize 个键值对而不扩容的散列表 </b></em></p> */
+	public LongObjectHashMap(int expectedSize){
+		allocate(HashCommon.tableSize(expectedSize, HashCommon.DEFAULT_LOAD_FACTOR));
+	}
+
+	/** <p><b><em> 键值对数量 </b></em></p> */
+	public int size(){
+		return size;
+	}
+
+	/** <p><b><em> 散列表的槽位数量, 不包括键 0 </b></em></p> */
+	int capacity(){
+		return keys.length;
+	}
+
+	/** <p><b><em> 是否没有键值对 </b></em></p> */
+	public boolean isEmpty(){
+		return size == 0;
+	}
+
+	/** <p><b><em> 是否包含键 </b></em></p> */
+	public boolean containsKey(long key){
+		return key == 0 ? containsZero : indexOf(key) >= 0;
+	}
+
+	/** <p><b><em> 获取键所对应的值, 键不存在返回 null </b></em></p> */
+	public V get(long key){
+		return getOrDefault(key, null);
+	}
+
+	/** <p><b><em> 获取键所对应的值, 键不存在返回 defaultValue </b></em></p> */
+	@SuppressWarnings("unchecked")
+	public V getOrDefault(long key, V defaultValue){
+		if(key == 0){
+			return containsZero ? zeroValue : defaultValue;
+		}
+		int index = indexOf(key);
+		return index < 0 ? defaultValue : (V) values[index];
+	}
+
+	/** <p><b><em> 存入键值对, 返回键原有的值, 键不存在返回 null </b></em></p> */
+	@SuppressWarnings("unchecked")
+	public V put(long key, V value){
+		if(key == 0){
+			V previous = zeroValue;
+			zeroValue = value;
+			if(!containsZero){
+				containsZero = true;
+				size++;
+			}
+			return previous;
+		}
+		int mask = keys.length - 1;
+		int slot = HashCommon.mix(key) & mask;
+		for(long current; (current = keys[slot]) != 0; slot = (slot + 1) & mask){
+			if(current == key){
+				V previous = (V) values[slot];
+				values[slot] = value;
+				return previous;
+			}
+		}
+		checkFull();
+		keys[slot] = key;
+		values[slot] = value;
+		if(++size - (containsZero ? 1 : 0) > threshold){
+			rehash(keys.length << 1);
+		}
+		return null;
+	}
+
+	/** <p><b><em> 移除键, 返回键原有的值, 键不存在返回 null </b></em></p> */
+	@SuppressWarnings("unchecked")
+	public V remove(long key){
+		if(key == 0){
+			if(!containsZero){
+				return null;
+			}
+			V previous = zeroValue;
+			containsZero = false;
+			zeroValue = null;
+			size--;
+			return previous;
+		}
+		int index = indexOf(key);
+		if(index < 0){
+			return null;
+		}
+		V previous = (V) values[index];
+		shiftKeys(index);
+		size--;
+		return previous;
+	}
+
+	/** <p><b><em> 移除全部键值对, 保留已分配的空间 </b></em></p> */
+	public void clear(){
+		Arrays.fill(keys, 0L);
+		Arrays.fill(values, null);
+		containsZero = false;
+		zeroValue = null;
+		size = 0;
+	}
+
+	/** <p><b><em> 复制全部键到新数组, 键的顺序不确定 </b></em></p> */
+	public long[] keys(){
+		long[] result = new long[size];
+		int index = 0;
+		if(containsZero){
+			result[index++] = 0;
+		}
+		for(long key : keys){
+			if(key != 0){
+				result[index++] = key;
+			}
+		}
+		return result;
+	}
+
+	/** <p><b><em> 复制全部值到新列表, 值的顺序与 keys 方法返回的键的顺序相同 </b></em></p> */
+	@SuppressWarnings("unchecked")
+	public List<V> values(){
+		List<V> result = new ArrayList<V>(size);
+		if(containsZero){
+			result.add(zeroValue);
+		}
+		for(int i = 0; i < keys.length; i++){
+			if(keys[i] != 0){
+				result.add((V) values[i]);
+			}
+		}
+		return result;
+	}
+
+	/** <p><b><em> 获取遍历全部键值对的游标, 遍历过程中不应修改散列表 </b></em></p> */
+	public Cursor<V> cursor(){
+		return new Cursor<V>(this);
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = 0;
+		Cursor<V> cursor = cursor();
+		while(cursor.next()){
+			long key = cursor.key();
+			V value = cursor.value();
+			hash += (int) (key ^ (key >>> 32)) ^ (value == null ? 0 : value.hashCode());
+		}
+		return hash;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if(other == this){
+			return true;
+		}
+		if(!(other instanceof LongObjectHashMap)){
+			return false;
+		}
+		LongObjectHashMap<?> map = (LongObjectHashMap<?>) other;
+		if(size != map.size){
+			return false;
+		}
+		Cursor<V> cursor = cursor();
+		while(cursor.next()){
+			V value = cursor.value();
+			Object target = map.get(cursor.key());
+			if(value == null ? target != null || !map.containsKey(cursor.key()) : !value.equals(target)){
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("{");
+		Cursor<V> cursor = cursor();
+		for(boolean first = true; cursor.next(); first = false){
+			builder.append(first ? "" : ", ").append(cursor.key()).append('=').append(cursor.value());
+		}
+		return builder.append('}').toString();
+	}
+
+	/** <p><b><em> 查找键所在的下标, 键不存在返回 -1。键不为 0 </b></em></p> */
+	private int indexOf(long key){
+		int mask = keys.length - 1;
+		for(int slot = HashCommon.mix(key) & mask; ; slot = (slot + 1) & mask){
+			long current = keys[slot];
+			if(current == key){
+				return slot;
+			}
+			if(current == 0){
+				return -1;
+			}
+		}
+	}
+
+	/** <p><b><em> 移除 slot 处的键值对, 将其后同一探测序列上的键值对前移填补空槽 </b></em></p> */
+	private void shiftKeys(int slot){
+		int mask = keys.length - 1;
+		for(int next = (slot + 1) & mask; ; next = (next + 1) & mask){
+			long key = keys[next];
+			if(key == 0){
+				keys[slot] = 0;
+				values[slot] = null;
+				return;
+			}
+			int home = HashCommon.mix(key) & mask;
+			/* home 不在 (slot, next] 区间内时, 键值对可以前移到 slot */
+			if(slot <= next ? (home <= slot || home > next) : (home <= slot && home > next)){
+				keys[slot] = key;
+				values[slot] = values[next];
+				slot = next;
+			}
+		}
+	}
+
+	/** <p><b><em> 分配容量为 capacity 的散列表 </b></em></p> */
+	private void allocate(int capacity){
+		keys = new long[capacity];
+		values = new Object[capacity];
+		threshold = capacity == HashCommon.MAX_CAPACITY ? capacity - 1 : (int) (capacity * HashCommon.DEFAULT_LOAD_FACTOR);
+	}
+
+	/** <p><b><em> 散列表已达最大容量且键值对数量达到上限时不能再添加键, 至少保留一个空槽以结束探测 </b></em></p> */
+	private void checkFull(){
+		if(keys.length == HashCommon.MAX_CAPACITY && size - (containsZero ? 1 : 0) >= threshold){
+			throw new IllegalStateException("LongObjectHashMap is full.");
+		}
+	}
+
+	/** <p><b><em> 扩容并重新散列全部键值对, 已达最大容量时不扩容 </b></em></p> */
+	private void rehash(int capacity){
+		if(keys.length == HashCommon.MAX_CAPACITY){
+			return;
+		}
+		long[] previousKeys = keys;
+		Object[] previousValues = values;
+		allocate(capacity);
+		int mask = capacity - 1;
+		for(int i = 0; i < previousKeys.length; i++){
+			long key = previousKeys[i];
+			if(key != 0){
+				int slot = HashCommon.mix(key) & mask;
+				while(keys[slot] != 0){
+					slot = (slot + 1) & mask;
+				}
+				keys[slot] = key;
+				values[slot] = previousValues[i];
+			}
+		}
+	}
+
+	/**
+	 * <p> ##################################################### </p>
+	 * <p> @描述：遍历散列表键值对的游标。调用 next 方法移动到下一个键值对后, 再读取当前的键和值 </p>
+	 * <p> @作者：fancy </p>
+	 * <p> @邮箱：fancores@163.com </p>
+	 * <p> @日期：2014-06-28 </p>
+	 * <br> ##################################################### </p>
+	 */
+	public static final class Cursor<V> {
+
+		private final LongObjectHashMap<V> map;
+		/** <p><b><em> 当前下标, -2 表示尚未开始, -1 表示键 0 </b></em></p> */
+		private int index = -2;
+
+		private Cursor(LongObjectHashMap<V> map){
+			this.map = map;
+		}
+
+		/** <p><b><em> 移动到下一个键值对, 没有更多键值对返回 false </b></em></p> */
+		public boolean next(){
+			if(index == -2){
+				index = -1;
+				if(map.containsZero){
+					return true;
+				}
+			}
+			long[] keys = map.keys;
+			while(++index < keys.length){
+				if(keys[index] != 0){
+					return true;
+				}
+			}
+			index = keys.length;
+			return false;
+		}
+
+		/** <p><b><em> 当前的键 </b></em></p> */
+		public long key(){
+			checkPosition();
+			return index == -1 ? 0 : map.keys[index];
+		}
+
+		/** <p><b><em> 当前的值 </b></em></p> */
+		@SuppressWarnings("unchecked")
+		public V value(){
+			checkPosition();
+			return index == -1 ? map.zeroValue : (V) map.values[index];
+		}
+
+		/** <p><b><em> 检查游标是否指向键值对 </b></em></p> */
+		private void checkPosition(){
+			if(index == -2 || index >= map.keys.length){
+				throw new NoSuchElementException();
+			}
+		}
+	}
+}
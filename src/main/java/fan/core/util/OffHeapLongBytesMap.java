@@ -0,0 +1,154 @@
+package fan.core.util;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+/**
+ * <p> ##################################################### </p>
+ * <p> @描述：堆外的 long 键定长 byte[] 值散列表。开放寻址、线性探测, 键值对存放在直接缓冲区中, 不在垃圾回收器的扫描范围内 </p>
+ * <p> 所有值的长度都等于 valueWidth, 每个键值对占 8 + valueWidth 字节堆外内存。应预先指定 expectedSize 以避免扩容时的重新散列。
+ *     使用完毕必须调用 close 方法立即释放堆外内存, 关闭后不能再访问。非线程安全 </p>
+ * <p> save 方法将散列表写出为快照文件, open 方法只读映射快照文件, 查找直接访问映射的内存页, 无需重建散列表 </p>
+ * <pre>
+ * >>> <b><em>e.g.</em></b>
+ * >>> OffHeapLongBytesMap digests = Container.newOffHeapLongBytesMap(100000000L, 16);
+ * >>> try {
+ * >>>     digests.put(user.getId(), md5);
+ * >>>     byte[] digest = new byte[16];
+ * >>>     if(digests.get(user.getId(), digest)){
+ * >>>         . . . . . .
+ * >>>     }
+ * >>> } finally {
+ * >>>     digests.close();
+ * >>> }
+ * </pre>
+ * <p> @作者：fancy </p>
+ * <p> @邮箱：fancores@163.com </p>
+ * <p> @日期：2014-06-29 </p>
+ * <br> ##################################################### </p>
+ */
+public class OffHeapLongBytesMap implements Closeable {
+
+	/** <p><b><em> 堆外散列表 </b></em></p> */
+	private final OffHeapTable table;
+
+	/** <p><b><em> 创建能容纳 expectedSize 个键值对而不扩容的散列表, 值的长度为 valueWidth 字节 </b></em></p> */
+	public OffHeapLongBytesMap(long expectedSize, int valueWidth){
+		this.table = new OffHeapTable(expectedSize, valueWidth);
+	}
+
+	private OffHeapLongBytesMap(OffHeapTable table){
+		this.table = table;
+	}
+
+	/** <p><b><em> 只读映射快照文件, 只校验文件头和文件长度 </b></em></p> */
+	public static OffHeapLongBytesMap open(File file) throws IOException {
+		return open(file, false);
+	}
+
+	/** <p><b><em> 只读映射快照文件, verify 为 true 时读取整个文件校验槽位数据 </b></em></p> */
+	public static OffHeapLongBytesMap open(File file, boolean verify) throws IOException {
+		return new OffHeapLongBytesMap(OffHeapSnapshot.open(file, OffHeapSnapshot.KIND_BYTES, verify));
+	}
+
+	/** <p><b><em> 将散列表写出为快照文件, 覆盖已有的文件 </b></em></p> */
+	public void save(File file) throws IOException {
+		OffHeapSnapshot.write(table, OffHeapSnapshot.KIND_BYTES, file);
+	}
+
+	/** <p><b><em> 是否只读, 由快照文件打开的散列表不能修改 </b></em></p> */
+	public boolean isReadOnly(){
+		return table.isReadOnly();
+	}
+
+	/** <p><b><em> 值的字节数 </b></em></p> */
+	public int valueWidth(){
+		return table.valueWidth();
+	}
+
+	/** <p><b><em> 键值对数量 </b></em></p> */
+	public long size(){
+		return table.size();
+	}
+
+	/** <p><b><em> 是否没有键值对 </b></em></p> */
+	public boolean isEmpty(){
+		return table.size() == 0;
+	}
+
+	/** <p><b><em> 占用的堆外内存字节数 </b></em></p> */
+	public long memoryUsage(){
+		return table.memoryUsage();
+	}
+
+	/** <p><b><em> 是否包含键 </b></em></p> */
+	public boolean containsKey(long key){
+		return table.indexOf(key) >= 0;
+	}
+
+	/** <p><b><em> 获取键所对应的值的副本, 键不存在返回 null </b></em></p> */
+	public byte[] get(long key){
+		long slot = table.indexOf(key);
+		if(slot < 0){
+			return null;
+		}
+		byte[] value = new byte[table.valueWidth()];
+		table.getValue(slot, value, 0);
+		return value;
+	}
+
+	/** <p><b><em> 复制键所对应的值到 target 的起始处, 键不存在返回 false 且不修改 target </b></em></p> */
+	public boolean get(long key, byte[] target){
+		return get(key, target, 0);
+	}
+
+	/** <p><b><em> 复制键所对应的值到 target 的 offset 处, 键不存在返回 false 且不修改 target </b></em></p> */
+	public boolean get(long key, byte[] target, int offset){
+		checkRange(target, offset);
+		long slot = table.indexOf(key);
+		if(slot < 0){
+			return false;
+		}
+		table.getValue(slot, target, offset);
+		return true;
+	}
+
+	/** <p><b><em> 存入键值对, value 的长度必须等于 valueWidth, 键原已存在返回 false </b></em></p> */
+	public boolean put(long key, byte[] value){
+		if(value.length != table.valueWidth()){
+			throw new IllegalArgumentException("value length " + value.length + " != valueWidth " + table.valueWidth());
+		}
+		return put(key, value, 0);
+	}
+
+	/** <p><b><em> 存入键值对, 值取 source 的 offset 处起的 valueWidth 字节, 键原已存在返回 false </b></em></p> */
+	public boolean put(long key, byte[] source, int offset){
+		checkRange(source, offset);
+		long slot = table.claim(key);
+		table.putValue(slot < 0 ? -slot - 1 : slot, source, offset);
+		return slot < 0;
+	}
+
+	/** <p><b><em> 移除键, 键不存在返回 false </b></em></p> */
+	public boolean remove(long key){
+		long slot = table.indexOf(key);
+		if(slot < 0){
+			return false;
+		}
+		table.removeAt(slot);
+		return true;
+	}
+
+	/** <p><b><em> 立即释放堆外内存, 由快照文件打开时解除文件映射。重复关闭没有影响 </b></em></p> */
+	@Override
+	public void close() {
+		table.close();
+	}
+
+	/** <p><b><em> 检查数组的 offset 处起是否有 valueWidth 字节 </b></em></p> */
+	private void checkRange(byte[] bytes, int offset){
+		if(offset < 0 || offset > bytes.length - table.valueWidth()){
+			throw new IndexOutOfBoundsException("offset: " + offset + ", length: " + bytes.length + ", valueWidth: " + table.valueWidth());
+		}
+	}
+}
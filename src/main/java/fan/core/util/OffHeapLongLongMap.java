@@ -0,0 +1,124 @@
+package fan.core.util;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+/**
+ * <p> ##################################################### </p>
+ * <p> @描述：堆外的 long 键 long 值散列表。开放寻址、线性探测, 键值对存放在直接缓冲区中, 不在垃圾回收器的扫描范围内 </p>
+ * <p> 每个键值对占 16 字节堆外内存, 适合数亿条记录的 ID 映射表。应预先指定 expectedSize 以避免扩容时的重新散列。
+ *     使用完毕必须调用 close 方法立即释放堆外内存, 关闭后不能再访问。非线程安全 </p>
+ * <p> save 方法将散列表写出为快照文件, open 方法只读映射快照文件, 查找直接访问映射的内存页, 无需重建散列表 </p>
+ * <pre>
+ * >>> <b><em>e.g.</em></b>
+ * >>> OffHeapLongLongMap mapping = Container.newOffHeapLongLongMap(200000000L);
+ * >>> try {
+ * >>>     mapping.put(10086L, 10010L);
+ * >>>     mapping.get(10086L, -1L);
+ * >>> } finally {
+ * >>>     mapping.close();
+ * >>> }
+ * >>> <b><em>output look like :</em></b>
+ * >>> 10010
+ * </pre>
+ * <p> @作者：fancy </p>
+ * <p> @邮箱：fancores@163.com </p>
+ * <p> @日期：2014-06-29 </p>
+ * <br> ##################################################### </p>
+ */
+public class OffHeapLongLongMap implements Closeable {
+
+	/** <p><b><em> 堆外散列表 </b></em></p> */
+	private final OffHeapTable table;
+
+	/** <p><b><em> 创建能容纳 expectedSize 个键值对而不扩容的散列表 </b></em></p> */
+	public OffHeapLongLongMap(long expectedSize){
+		this.table = new OffHeapTable(expectedSize, 8);
+	}
+
+	private OffHeapLongLongMap(OffHeapTable table){
+		this.table = table;
+	}
+
+	/** <p><b><em> 只读映射快照文件, 只校验文件头和文件长度 </b></em></p> */
+	public static OffHeapLongLongMap open(File file) throws IOException {
+		return open(file, false);
+	}
+
+	/** <p><b><em> 只读映射快照文件, verify 为 true 时读取整个文件校验槽位数据 </b></em></p> */
+	public static OffHeapLongLongMap open(File file, boolean verify) throws IOException {
+		return new OffHeapLongLongMap(OffHeapSnapshot.open(file, OffHeapSnapshot.KIND_LONG, verify));
+	}
+
+	/** <p><b><em> 将散列表写出为快照文件, 覆盖已有的文件 </b></em></p> */
+	public void save(File file) throws IOException {
+		OffHeapSnapshot.write(table, OffHeapSnapshot.KIND_LONG, file);
+	}
+
+	/** <p><b><em> 是否只读, 由快照文件打开的散列表不能修改 </b></em></p> */
+	public boolean isReadOnly(){
+		return table.isReadOnly();
+	}
+
+	/** <p><b><em> 键值对数量 </b></em></p> */
+	public long size(){
+		return table.size();
+	}
+
+	/** <p><b><em> 是否没有键值对 </b></em></p> */
+	public boolean isEmpty(){
+		return table.size() == 0;
+	}
+
+	/** <p><b><em> 占用的堆外内存字节数 </b></em></p> */
+	public long memoryUsage(){
+		return table.memoryUsage();
+	}
+
+	/** <p><b><em> 是否包含键 </b></em></p> */
+	public boolean containsKey(long key){
+		return table.indexOf(key) >= 0;
+	}
+
+	/** <p><b><em> 获取键所对应的值, 键不存在返回 defaultValue </b></em></p> */
+	public long get(long key, long defaultValue){
+		long slot = table.indexOf(key);
+		return slot < 0 ? defaultValue : table.getLong(slot, 0);
+	}
+
+	/** <p><b><em> 存入键值对, 键原已存在返回 false </b></em></p> */
+	public boolean put(long key, long value){
+		long slot = table.claim(key);
+		table.putLong(slot < 0 ? -slot - 1 : slot, 0, value);
+		return slot < 0;
+	}
+
+	/** <p><b><em> 将键所对应的值加上 delta, 键不存在时视为 0, 返回相加后的值 </b></em></p> */
+	public long addTo(long key, long delta){
+		long slot = table.claim(key);
+		if(slot < 0){
+			slot = -slot - 1;
+			table.putLong(slot, 0, delta);
+			return delta;
+		}
+		long value = table.getLong(slot, 0) + delta;
+		table.putLong(slot, 0, value);
+		return value;
+	}
+
+	/** <p><b><em> 移除键, 键不存在返回 false </b></em></p> */
+	public boolean remove(long key){
+		long slot = table.indexOf(key);
+		if(slot < 0){
+			return false;
+		}
+		table.removeAt(slot);
+		return true;
+	}
+
+	/** <p><b><em> 立即释放堆外内存, 由快照文件打开时解除文件映射。重复关闭没有影响 </b></em></p> */
+	@Override
+	public void close() {
+		table.close();
+	}
+}
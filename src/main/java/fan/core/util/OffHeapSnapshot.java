@@ -0,0 +1,194 @@
+package fan.core.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+/**
+ * <p> ##################################################### </p>
+ * <p> @描述：堆外散列表的快照文件。文件由 64 字节的文件头和散列表的全部槽位组成, 槽位按内存中的开放寻址布局原样写出 </p>
+ * <p> 打开快照时以 FileChannel.map 只读映射槽位, 不读取、不重建散列表, 查找直接访问映射的内存页, 耗时与文件大小无关 </p>
+ * <p> 文件头依次为: 魔数、版本号、散列表类型、值的字节数、字节序、分段位数、容量、键的数量、是否包含键 0、
+ *     槽位数据的 CRC32 校验和、文件头的 CRC32 校验和。打开时总是校验文件头和文件长度,
+ *     槽位数据的校验和需要读取整个文件, 只在 verify 为 true 时校验 </p>
+ * <p> 写出时先写到同一目录下的临时文件: 槽位数据落盘后再写出文件头并落盘, 最后以重命名替换原文件。
+ *     写出中断时原有的快照保持不变, 已映射原文件的读取方也不受影响 </p>
+ * <p> @作者：fancy </p>
+ * <p> @邮箱：fancores@163.com </p>
+ * <p> @日期：2014-06-30 </p>
+ * <br> ##################################################### </p>
+ */
+final class OffHeapSnapshot {
+
+	/** <p><b><em> 散列表类型: long 值 </b></em></p> */
+	static final int KIND_LONG = 1;
+	/** <p><b><em> 散列表类型: 定长 byte[] 值 </b></em></p> */
+	static final int KIND_BYTES = 2;
+
+	/** <p><b><em> 魔数 "FANM" </b></em></p> */
+	private static final int MAGIC = 0x46414E4D;
+	/** <p><b><em> 文件格式的版本号 </b></em></p> */
+	private static final int VERSION = 1;
+	/** <p><b><em> 文件头的字节数 </b></em></p> */
+	private static final int HEADER_SIZE = 64;
+	/** <p><b><em> 文件头中参与校验的字节数, 即文件头校验和之前的全部字节 </b></em></p> */
+	private static final int HEADER_CHECKED = 56;
+	/** <p><b><em> 读写槽位数据的缓冲区大小 </b></em></p> */
+	private static final int IO_BUFFER_SIZE = 1 << 16;
+
+	private OffHeapSnapshot(){
+
+	}
+
+	/** <p><b><em> 将散列表写出为快照文件, 写完后替换已有的文件 </b></em></p> */
+	static void write(OffHeapTable table, int kind, File file) throws IOException {
+		File directory = file.getAbsoluteFile().getParentFile();
+		File temp = File.createTempFile(file.getName() + ".", ".tmp", directory);
+		boolean written = false;
+		try {
+			writeTo(table, kind, temp);
+			replace(temp, file);
+			written = true;
+		} finally {
+			if(!written){
+				temp.delete();
+			}
+		}
+	}
+
+	/** <p><b><em> 写出槽位数据并落盘, 再写出文件头并落盘 </b></em></p> */
+	private static void writeTo(OffHeapTable table, int kind, File file) throws IOException {
+		ByteBuffer[] segments = table.segments();
+		RandomAccessFile output = new RandomAccessFile(file, "rw");
+		try {
+			FileChannel channel = output.getChannel();
+			channel.position(HEADER_SIZE);
+			CRC32 crc = new CRC32();
+			byte[] chunk = new byte[IO_BUFFER_SIZE];
+			for(ByteBuffer segment : segments){
+				ByteBuffer source = segment.duplicate();
+				source.clear();
+				while(source.hasRemaining()){
+					int length = Math.min(chunk.length, source.remaining());
+					source.get(chunk, 0, length);
+					crc.update(chunk, 0, length);
+					writeFully(channel, ByteBuffer.wrap(chunk, 0, length));
+				}
+			}
+			channel.force(true);
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			header.putInt(MAGIC).putInt(VERSION).putInt(kind).putInt(table.valueWidth());
+			header.put((byte) (segments[0].order() == ByteOrder.LITTLE_ENDIAN ? 1 : 0)).put((byte) 0).put((byte) 0).put((byte) 0);
+			header.putInt(table.segmentShift()).putLong(table.capacity()).putLong(table.size());
+			header.put((byte) (table.containsZero() ? 1 : 0)).put((byte) 0).put((byte) 0).put((byte) 0).putInt(0);
+			header.putLong(crc.getValue());
+			header.putInt(headerChecksum(header.array())).putInt(0);
+			header.flip();
+			channel.position(0);
+			writeFully(channel, header);
+			channel.force(true);
+		} finally {
+			output.close();
+		}
+	}
+
+	/**
+	 * <p><b><em> 以重命名替换目标文件 </b></em></p>
+	 * <p> 同一文件系统内的重命名在 POSIX 系统上是原子的; Windows 不能重命名到已存在的文件, 先删除目标文件再重命名 </p>
+	 */
+	private static void replace(File temp, File file) throws IOException {
+		if(temp.renameTo(file)){
+			return;
+		}
+		if(!file.delete() || !temp.renameTo(file)){
+			throw new IOException("快照文件 " + temp.getPath() + " 无法重命名为 " + file.getPath());
+		}
+	}
+
+	/** <p><b><em> 只读映射快照文件, 文件损坏、类型或格式不匹配时抛出 IOException </b></em></p> */
+	static OffHeapTable open(File file, int kind, boolean verify) throws IOException {
+		RandomAccessFile input = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = input.getChannel();
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			while(header.hasRemaining()){
+				if(channel.read(header, header.position()) < 0){
+					break;
+				}
+			}
+			if(header.hasRemaining() || header.getInt(0) != MAGIC){
+				throw corrupted(file, "不是快照文件");
+			}
+			if(header.getInt(56) != headerChecksum(header.array())){
+				throw corrupted(file, "文件头校验和不匹配");
+			}
+			if(header.getInt(4) != VERSION){
+				throw corrupted(file, "不支持的版本号 " + header.getInt(4));
+			}
+			if(header.getInt(8) != kind){
+				throw corrupted(file, "散列表类型不匹配");
+			}
+			int valueWidth = header.getInt(12);
+			ByteOrder order = header.get(16) == 1 ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+			int segmentShift = header.getInt(20);
+			long capacity = header.getLong(24), size = header.getLong(32);
+			boolean containsZero = header.get(40) == 1;
+			if(valueWidth <= 0 || segmentShift < 0 || segmentShift > 30 || Long.bitCount(capacity) != 1 || size < 0){
+				throw corrupted(file, "文件头无效");
+			}
+			long slotWidth = 8L + valueWidth, slots = capacity + 1;
+			if(channel.size() != HEADER_SIZE + slots * slotWidth){
+				throw corrupted(file, "文件长度不匹配");
+			}
+			long perSegment = 1L << segmentShift;
+			ByteBuffer[] segments = new ByteBuffer[(int) ((slots + perSegment - 1) / perSegment)];
+			CRC32 crc = new CRC32();
+			byte[] chunk = verify ? new byte[IO_BUFFER_SIZE] : null;
+			for(int i = 0; i < segments.length; i++){
+				long inSegment = Math.min(perSegment, slots - i * perSegment);
+				MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + i * perSegment * slotWidth, inSegment * slotWidth);
+				segments[i] = mapped.order(order);
+				if(verify){
+					ByteBuffer source = mapped.duplicate();
+					while(source.hasRemaining()){
+						int length = Math.min(chunk.length, source.remaining());
+						source.get(chunk, 0, length);
+						crc.update(chunk, 0, length);
+					}
+				}
+			}
+			if(verify && crc.getValue() != header.getLong(48)){
+				for(ByteBuffer segment : segments){
+					DirectMemory.free(segment);
+				}
+				throw corrupted(file, "槽位数据校验和不匹配");
+			}
+			return new OffHeapTable(segments, valueWidth, capacity, segmentShift, size, containsZero);
+		} finally {
+			input.close();
+		}
+	}
+
+	/** <p><b><em> 文件头的校验和 </b></em></p> */
+	private static int headerChecksum(byte[] header){
+		CRC32 crc = new CRC32();
+		crc.update(header, 0, HEADER_CHECKED);
+		return (int) crc.getValue();
+	}
+
+	/** <p><b><em> 写出缓冲区中剩余的全部字节 </b></em></p> */
+	private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+		while(buffer.hasRemaining()){
+			channel.write(buffer);
+		}
+	}
+
+	/** <p><b><em> 快照文件无法打开的异常 </b></em></p> */
+	private static IOException corrupted(File file, String reason){
+		return new IOException("快照文件 " + file.getPath() + " 无法打开: " + reason);
+	}
+}
@@ -0,0 +1,340 @@
+package fan.core.util;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+/**
+ * <p> ##################################################### </p>
+ * <p> @描述：堆外的 long 键开放寻址散列表。每个槽位依次存放 8 字节的键和 valueWidth 字节的值 </p>
+ * <p> 槽位分段存放在多个直接缓冲区中, 单个缓冲区不超过 1 GB, 因此槽位总数不受 int 范围限制。
+ *     散列表中以键 0 表示空槽, 键 0 的值存放在散列范围之外的最后一个槽位中。
+ *     移除键时将其后同一探测序列上的槽位前移, 不留删除标记。非线程安全 </p>
+ * <p> 也可以包装只读映射的快照文件, 此时槽位直接从映射的内存页中读取, 不能修改 </p>
+ * <p> @作者：fancy </p>
+ * <p> @邮箱：fancores@163.com </p>
+ * <p> @日期：2014-06-29 </p>
+ * <br> ##################################################### </p>
+ */
+final class OffHeapTable implements Closeable {
+
+	/** <p><b><em> 单个缓冲区的最大字节数 </b></em></p> */
+	private static final int MAX_SEGMENT_BYTES = 1 << 30;
+	/** <p><b><em> 最大的散列表容量 </b></em></p> */
+	private static final long MAX_CAPACITY = 1L << 40;
+
+	/** <p><b><em> 值的字节数 </b></em></p> */
+	private final int valueWidth;
+	/** <p><b><em> 槽位的字节数 </b></em></p> */
+	private final int slotWidth;
+	/** <p><b><em> 槽位所在的缓冲区, 关闭后为 null </b></em></p> */
+	private ByteBuffer[] segments;
+	/** <p><b><em> 散列范围内的槽位数量, 为 2 的幂 </b></em></p> */
+	private long capacity;
+	/** <p><b><em> 每个缓冲区的槽位数量为 2 的 segmentShift 次幂 </b></em></p> */
+	private int segmentShift;
+	/** <p><b><em> 是否包含键 0 </b></em></p> */
+	private boolean containsZero;
+	/** <p><b><em> 键的数量, 包括键 0 </b></em></p> */
+	private long size;
+	/** <p><b><em> 散列表中的键的数量达到此值时扩容 </b></em></p> */
+	private long threshold;
+	/** <p><b><em> 是否只读, 包装快照文件的映射时为 true </b></em></p> */
+	private final boolean readOnly;
+
+	OffHeapTable(long expectedSize, int valueWidth){
+		if(expectedSize < 0){
+			throw new IllegalArgumentException("expectedSize must not be negative.");
+		}
+		if(valueWidth <= 0 || valueWidth > MAX_SEGMENT_BYTES / 2 - 8){
+			throw new IllegalArgumentException("valueWidth out of range: " + valueWidth);
+		}
+		this.valueWidth = valueWidth;
+		this.slotWidth = 8 + valueWidth;
+		this.readOnly = false;
+		long required = (long) Math.ceil(expectedSize / (double) HashCommon.DEFAULT_LOAD_FACTOR);
+		long tableSize = 2;
+		while(tableSize < required && tableSize < MAX_CAPACITY){
+			tableSize <<= 1;
+		}
+		allocate(tableSize);
+	}
+
+	/** <p><b><em> 包装已有的槽位缓冲区, 只读。缓冲区的布局必须与 allocate 方法分配的布局相同 </b></em></p> */
+	OffHeapTable(ByteBuffer[] segments, int valueWidth, long capacity, int segmentShift, long size, boolean containsZero){
+		this.segments = segments;
+		this.valueWidth = valueWidth;
+		this.slotWidth = 8 + valueWidth;
+		this.capacity = capacity;
+		this.segmentShift = segmentShift;
+		this.size = size;
+		this.containsZero = containsZero;
+		this.readOnly = true;
+	}
+
+	/** <p><b><em> 值的字节数 </b></em></p> */
+	int valueWidth(){
+		return valueWidth;
+	}
+
+	/** <p><b><em> 键的数量 </b></em></p> */
+	long size(){
+		return size;
+	}
+
+	/** <p><b><em> 占用的堆外内存字节数 </b></em></p> */
+	long memoryUsage(){
+		return (capacity + 1) * slotWidth;
+	}
+
+	/** <p><b><em> 散列范围内的槽位数量 </b></em></p> */
+	long capacity(){
+		return capacity;
+	}
+
+	/** <p><b><em> 每个缓冲区的槽位数量为 2 的 segmentShift 次幂 </b></em></p> */
+	int segmentShift(){
+		return segmentShift;
+	}
+
+	/** <p><b><em> 是否包含键 0 </b></em></p> */
+	boolean containsZero(){
+		return containsZero;
+	}
+
+	/** <p><b><em> 是否只读 </b></em></p> */
+	boolean isReadOnly(){
+		return readOnly;
+	}
+
+	/** <p><b><em> 槽位所在的缓冲区, 依次相接即为全部槽位 </b></em></p> */
+	ByteBuffer[] segments(){
+		checkOpen();
+		return segments;
+	}
+
+	/** <p><b><em> 查找键所在的槽位, 键不存在返回 -1 </b></em></p> */
+	long indexOf(long key){
+		checkOpen();
+		if(key == 0){
+			return containsZero ? capacity : -1;
+		}
+		long mask = capacity - 1;
+		for(long slot = HashCommon.mixLong(key) & mask; ; slot = (slot + 1) & mask){
+			long current = keyAt(slot);
+			if(current == key){
+				return slot;
+			}
+			if(current == 0){
+				return -1;
+			}
+		}
+	}
+
+	/** <p><b><em> 查找或占用键所在的槽位。键已存在返回槽位, 新占用槽位返回 -slot - 1, 由调用方写入值 </b></em></p> */
+	long claim(long key){
+		checkWritable();
+		if(key == 0){
+			if(containsZero){
+				return capacity;
+			}
+			containsZero = true;
+			size++;
+			return -capacity - 1;
+		}
+		long mask = capacity - 1;
+		long slot = HashCommon.mixLong(key) & mask;
+		for(long current; (current = keyAt(slot)) != 0; slot = (slot + 1) & mask){
+			if(current == key){
+				return slot;
+			}
+		}
+		if(size - (containsZero ? 1 : 0) >= threshold){
+			/* 只在占用新槽位时扩容, 扩容后重新探测空槽 */
+			rehash();
+			mask = capacity - 1;
+			slot = HashCommon.mixLong(key) & mask;
+			while(keyAt(slot) != 0){
+				slot = (slot + 1) & mask;
+			}
+		}
+		putKey(slot, key);
+		size++;
+		return -slot - 1;
+	}
+
+	/** <p><b><em> 移除槽位中的键, 将其后同一探测序列上的槽位前移填补空槽 </b></em></p> */
+	void removeAt(long slot){
+		checkWritable();
+		size--;
+		if(slot == capacity){
+			containsZero = false;
+			clearSlot(slot);
+			return;
+		}
+		long mask = capacity - 1;
+		for(long next = (slot + 1) & mask; ; next = (next + 1) & mask){
+			long key = keyAt(next);
+			if(key == 0){
+				clearSlot(slot);
+				return;
+			}
+			long home = HashCommon.mixLong(key) & mask;
+			/* home 不在 (slot, next] 区间内时, 槽位可以前移到 slot */
+			if(slot <= next ? (home <= slot || home > next) : (home <= slot && home > next)){
+				copySlot(segments, segmentShift, next, slot);
+				slot = next;
+			}
+		}
+	}
+
+	/** <p><b><em> 读取槽位中值的第 offset 字节起的 long </b></em></p> */
+	long getLong(long slot, int offset){
+		return segment(slot).getLong(position(slot) + 8 + offset);
+	}
+
+	/** <p><b><em> 写入槽位中值的第 offset 字节起的 long </b></em></p> */
+	void putLong(long slot, int offset, long value){
+		segment(slot).putLong(position(slot) + 8 + offset, value);
+	}
+
+	/** <p><b><em> 复制槽位中的值到 target 的 targetOffset 处 </b></em></p> */
+	void getValue(long slot, byte[] target, int targetOffset){
+		ByteBuffer view = segment(slot).duplicate();
+		view.position(position(slot) + 8);
+		view.get(target, targetOffset, valueWidth);
+	}
+
+	/** <p><b><em> 将 source 的 sourceOffset 处起的 valueWidth 字节写入槽位中的值 </b></em></p> */
+	void putValue(long slot, byte[] source, int sourceOffset){
+		ByteBuffer view = segment(slot).duplicate();
+		view.position(position(slot) + 8);
+		view.put(source, sourceOffset, valueWidth);
+	}
+
+	/** <p><b><em> 释放堆外内存, 只读时解除文件映射。重复关闭没有影响 </b></em></p> */
+	@Override
+	public void close() {
+		ByteBuffer[] current = segments;
+		segments = null;
+		if(current != null){
+			for(ByteBuffer segment : current){
+				DirectMemory.free(segment);
+			}
+		}
+	}
+
+	/** <p><b><em> 分配 tableSize + 1 个槽位, 最后一个槽位存放键 0 </b></em></p> */
+	private void allocate(long tableSize){
+		long slots = tableSize + 1;
+		long perSegment = Long.highestOneBit(Math.min(slots, MAX_SEGMENT_BYTES / slotWidth));
+		int count = (int) ((slots + perSegment - 1) / perSegment);
+		ByteBuffer[] allocated = new ByteBuffer[count];
+		try {
+			for(int i = 0; i < count; i++){
+				long inSegment = Math.min(perSegment, slots - i * perSegment);
+				allocated[i] = DirectMemory.allocate((int) (inSegment * slotWidth));
+			}
+		} catch (OutOfMemoryError e) {
+			for(ByteBuffer segment : allocated){
+				DirectMemory.free(segment);
+			}
+			throw e;
+		}
+		this.segments = allocated;
+		this.capacity = tableSize;
+		this.segmentShift = Long.numberOfTrailingZeros(perSegment);
+		this.threshold = tableSize == MAX_CAPACITY ? tableSize - 1 : (long) (tableSize * (double) HashCommon.DEFAULT_LOAD_FACTOR);
+	}
+
+	/** <p><b><em> 扩容为原容量的两倍并重新散列全部键, 之后释放原有的缓冲区 </b></em></p> */
+	private void rehash(){
+		if(capacity == MAX_CAPACITY){
+			throw new IllegalStateException("OffHeapTable is full.");
+		}
+		ByteBuffer[] previous = segments;
+		long previousCapacity = capacity;
+		int previousShift = segmentShift;
+		allocate(previousCapacity << 1);
+		long mask = capacity - 1;
+		for(long slot = 0; slot < previousCapacity; slot++){
+			long key = previous[(int) (slot >>> previousShift)].getLong(position(slot, previousShift));
+			if(key != 0){
+				long target = HashCommon.mixLong(key) & mask;
+				while(keyAt(target) != 0){
+					target = (target + 1) & mask;
+				}
+				copySlot(previous, previousShift, slot, target);
+			}
+		}
+		if(containsZero){
+			copySlot(previous, previousShift, previousCapacity, capacity);
+		}
+		for(ByteBuffer segment : previous){
+			DirectMemory.free(segment);
+		}
+	}
+
+	/** <p><b><em> 读取槽位中的键 </b></em></p> */
+	private long keyAt(long slot){
+		return segment(slot).getLong(position(slot));
+	}
+
+	/** <p><b><em> 写入槽位中的键 </b></em></p> */
+	private void putKey(long slot, long key){
+		segment(slot).putLong(position(slot), key);
+	}
+
+	/** <p><b><em> 清零槽位 </b></em></p> */
+	private void clearSlot(long slot){
+		ByteBuffer segment = segment(slot);
+		int position = position(slot), end = position + slotWidth;
+		for(; position + 8 <= end; position += 8){
+			segment.putLong(position, 0L);
+		}
+		for(; position < end; position++){
+			segment.put(position, (byte) 0);
+		}
+	}
+
+	/** <p><b><em> 将 source 中的槽位复制到当前缓冲区的槽位 </b></em></p> */
+	private void copySlot(ByteBuffer[] source, int sourceShift, long from, long to){
+		ByteBuffer input = source[(int) (from >>> sourceShift)];
+		ByteBuffer output = segment(to);
+		int in = position(from, sourceShift), out = position(to), end = in + slotWidth;
+		for(; in + 8 <= end; in += 8, out += 8){
+			output.putLong(out, input.getLong(in));
+		}
+		for(; in < end; in++, out++){
+			output.put(out, input.get(in));
+		}
+	}
+
+	/** <p><b><em> 槽位所在的缓冲区 </b></em></p> */
+	private ByteBuffer segment(long slot){
+		return segments[(int) (slot >>> segmentShift)];
+	}
+
+	/** <p><b><em> 槽位在所在缓冲区中的字节位置 </b></em></p> */
+	private int position(long slot){
+		return position(slot, segmentShift);
+	}
+
+	/** <p><b><em> 槽位在所在缓冲区中的字节位置 </b></em></p> */
+	private int position(long slot, int shift){
+		return (int) (slot & ((1L << shift) - 1)) * slotWidth;
+	}
+
+	/** <p><b><em> 检查散列表是否已关闭 </b></em></p> */
+	private void checkOpen(){
+		if(segments == null){
+			throw new IllegalStateException("OffHeapTable is closed.");
+		}
+	}
+
+	/** <p><b><em> 检查散列表是否可以修改 </b></em></p> */
+	private void checkWritable(){
+		checkOpen();
+		if(readOnly){
+			throw new UnsupportedOperationException("OffHeapTable is read-only.");
+		}
+	}
+}
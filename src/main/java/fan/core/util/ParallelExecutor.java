@@ -0,0 +1,136 @@
+package fan.core.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+/**
+ * <p> ##################################################### </p>
+ * <p> @描述：并行执行分片任务的工具类。共用一个守护线程池, 线程数与处理器数量相同 </p>
+ * <p> 调用线程自身执行第一个分片, 其余分片提交到线程池, 全部完成后返回。分片任务中不应再次并行执行 </p>
+ * <p> @作者：fancy </p>
+ * <p> @邮箱：fancores@163.com </p>
+ * <p> @日期：2014-06-17 </p>
+ * <br> ##################################################### </p>
+ */
+final class ParallelExecutor {
+
+	/** <p><b><em> 并行度, 即处理器数量 </b></em></p> */
+	static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+	/** <p><b><em> 共用的线程池, 首次使用时创建 </b></em></p> */
+	private static volatile ExecutorService executor;
+
+	private ParallelExecutor(){
+
+	}
+
+	/**
+	 * <p> ##################################################### </p>
+	 * <p> @描述：分片任务 </p>
+	 * <p> @作者：fancy </p>
+	 * <p> @邮箱：fancores@163.com </p>
+	 * <p> @日期：2014-06-17 </p>
+	 * <br> ##################################################### </p>
+	 */
+	interface Task {
+
+		/** <p><b><em> 执行第 part 个分片 </b></em></p> */
+		void run(int part) throws Exception;
+	}
+
+	/** <p><b><em> 将 [0, size) 区间均分为 parts 段, 返回 parts + 1 个边界 </b></em></p> */
+	static int[] split(int size, int parts){
+		int[] bounds = new int[parts + 1];
+		for(int i = 0; i <= parts; i++){
+			bounds[i] = (int) ((long) size * i / parts);
+		}
+		return bounds;
+	}
+
+	/** <p><b><em> 并行执行 parts 个分片, 等待全部完成。任一分片抛出的异常将在所有分片结束后抛出 </b></em></p> */
+	static void invokeAll(int parts, final Task task){
+		if(parts <= 1){
+			runInline(task, 0);
+			return;
+		}
+		List<Future<Object>> futures = new ArrayList<Future<Object>>(parts - 1);
+		ExecutorService service = getExecutor();
+		for(int i = 1; i < parts; i++){
+			final int part = i;
+			futures.add(service.submit(new Callable<Object>() {
+
+				@Override
+				public Object call() throws Exception {
+					task.run(part);
+					return null;
+				}
+
+			}));
+		}
+		Throwable failure = null;
+		try {
+			runInline(task, 0);
+		} catch (Throwable e) {
+			failure = e;
+		}
+		for(Future<Object> future : futures){
+			try {
+				future.get();
+			} catch (ExecutionException e) {
+				failure = failure == null ? e.getCause() : failure;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				failure = failure == null ? e : failure;
+			}
+		}
+		if(failure instanceof RuntimeException){
+			throw (RuntimeException) failure;
+		}else if(failure instanceof Error){
+			throw (Error) failure;
+		}else if(failure != null){
+			throw new ExecutetimeException(failure);
+		}
+	}
+
+	/** <p><b><em> 在调用线程中执行分片 </b></em></p> */
+	private static void runInline(Task task, int part){
+		try {
+			task.run(part);
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new ExecutetimeException(e);
+		}
+	}
+
+	/** <p><b><em> 获取共用的线程池 </b></em></p> */
+	private static ExecutorService getExecutor(){
+		ExecutorService service = executor;
+		if(service == null){
+			synchronized (ParallelExecutor.class) {
+				service = executor;
+				if(service == null){
+					executor = service = Executors.newFixedThreadPool(PARALLELISM, new ThreadFactory() {
+
+						private final AtomicInteger count = new AtomicInteger();
+
+						@Override
+						public Thread newThread(Runnable runnable) {
+							Thread thread = new Thread(runnable, "fan-core-util-parallel-" + count.incrementAndGet());
+							thread.setDaemon(true);
+							return thread;
+						}
+
+					});
+				}
+			}
+		}
+		return service;
+	}
+}
@@ -0,0 +1,84 @@
+package fan.core.util;
+/**
+ * <p> ##################################################### </p>
+ * <p> @描述：基本类型与包装类型之间的对应和方法调用时的类型转换规则 </p>
+ * <p> @作者：fancy </p>
+ * <p> @邮箱：fancores@163.com </p>
+ * <p> @日期：2014-07-07 </p>
+ * <br> ##################################################### </p>
+ */
+final class Primitives {
+
+	private Primitives(){
+
+	}
+
+	/** <p><b><em> 基本类型所对应的包装类型, 其它类型原样返回 </b></em></p> */
+	static Class<?> box(Class<?> type){
+		if(!type.isPrimitive()){
+			return type;
+		}
+		return type == int.class ? Integer.class : type == long.class ? Long.class : type == double.class ? Double.class
+			: type == float.class ? Float.class : type == short.class ? Short.class : type == byte.class ? Byte.class
+			: type == char.class ? Character.class : type == boolean.class ? Boolean.class : Void.class;
+	}
+
+	/** <p><b><em> 包装类型所对应的基本类型, 基本类型原样返回, 其它类型返回 null </b></em></p> */
+	static Class<?> unbox(Class<?> type){
+		if(type.isPrimitive()){
+			return type;
+		}
+		return type == Integer.class ? int.class : type == Long.class ? long.class : type == Double.class ? double.class
+			: type == Float.class ? float.class : type == Short.class ? short.class : type == Byte.class ? byte.class
+			: type == Character.class ? char.class : type == Boolean.class ? boolean.class : null;
+	}
+
+	/** <p><b><em> 基本类型 from 的值能否不损失量级地拓宽为基本类型 to </b></em></p> */
+	static boolean widens(Class<?> from, Class<?> to){
+		if(from == to){
+			return true;
+		}
+		if(from == boolean.class || to == boolean.class || to == char.class || to == byte.class){
+			return false;
+		}
+		if(to == short.class){
+			return from == byte.class;
+		}
+		if(to == int.class){
+			return from == byte.class || from == short.class || from == char.class;
+		}
+		if(to == long.class){
+			return from != float.class && from != double.class;
+		}
+		if(to == float.class){
+			return from != double.class;
+		}
+		return to == double.class;
+	}
+
+	/** <p><b><em> type 是否为 supertype 的子类型: 引用类型按继承关系, 基本类型按拓宽规则, 不经装箱拆箱 </b></em></p> */
+	static boolean isSubtype(Class<?> type, Class<?> supertype){
+		if(type == supertype){
+			return true;
+		}
+		if(type.isPrimitive() || supertype.isPrimitive()){
+			return type.isPrimitive() && supertype.isPrimitive() && widens(type, supertype);
+		}
+		return supertype.isAssignableFrom(type);
+	}
+
+	/**
+	 * <p><b><em> 类型为 argument 的实参能否传给类型为 parameter 的形参, 与 Method.invoke 的规则一致 </b></em></p>
+	 * <p> argument 为 null 表示实参为空, 只能传给引用类型的形参; 包装类型可以拆箱并拓宽后传给基本类型的形参 </p>
+	 */
+	static boolean isAssignable(Class<?> parameter, Class<?> argument){
+		if(argument == null){
+			return !parameter.isPrimitive();
+		}
+		if(parameter.isPrimitive()){
+			Class<?> primitive = unbox(argument);
+			return primitive != null && widens(primitive, parameter);
+		}
+		return parameter.isAssignableFrom(box(argument));
+	}
+}
@@ -0,0 +1,390 @@
+package fan.core.util;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+/**
+ * <p> ##################################################### </p>
+ * <p> @描述：属性访问器。每个类的每个属性只解析一次, 之后反复读写不再查找字段或方法 </p>
+ * <p> 提供 getInt、getLong、getDouble 等基本类型读写方法, 基本类型的属性读写时不产生装箱对象 </p>
+ * <pre>
+ * >>> <b><em>Definition:</em></b>
+ * >>> User(int id, String name, Date createDate)
+ * >>> <b><em>e.g.</em></b>
+ * >>> PropertyAccessor id = Reflection.getFieldAccessor(User.class, "id");
+ * >>> long sum = 0;
+ * >>> for(User user : userList){
+ * >>>     sum += id.getInt(user);
+ * >>> }
+ * </pre>
+ * <p> @作者：fancy </p>
+ * <p> @邮箱：fancores@163.com </p>
+ * <p> @日期：2014-06-05 </p>
+ * <br> ##################################################### </p>
+ */
+public abstract class PropertyAccessor {
+
+	/** <p><b><em> 属性名称 </b></em></p> */
+	private final String name;
+	/** <p><b><em> 属性类型 </b></em></p> */
+	private final Class<?> type;
+
+	PropertyAccessor(String name, Class<?> type){
+		this.name = name;
+		this.type = type;
+	}
+
+	/** <p><b><em> 获取属性名称 </b></em></p> */
+	public String getName() {
+		return name;
+	}
+
+	/** <p><b><em> 获取属性类型 </b></em></p> */
+	public Class<?> getType() {
+		return type;
+	}
+
+	/** <p><b><em> 属性是否可读 </b></em></p> */
+	public abstract boolean isReadable();
+
+	/** <p><b><em> 属性是否可写 </b></em></p> */
+	public abstract boolean isWritable();
+
+	/** <p><b><em> 读取属性的值, 基本类型的值将被装箱 </b></em></p> */
+	public abstract Object get(Object entity);
+
+	/** <p><b><em> 写入属性的值, 基本类型的属性接受对应的包装类型 </b></em></p> */
+	public abstract void set(Object entity, Object value);
+
+	/** <p><b><em> 读取数值属性的值 </b></em></p> */
+	public int getInt(Object entity){
+		return toNumber(get(entity)).intValue();
+	}
+
+	/** <p><b><em> 读取数值属性的值 </b></em></p> */
+	public long getLong(Object entity){
+		return toNumber(get(entity)).longValue();
+	}
+
+	/** <p><b><em> 读取数值属性的值 </b></em></p> */
+	public double getDouble(Object entity){
+		return toNumber(get(entity)).doubleValue();
+	}
+
+	/** <p><b><em> 写入数值属性的值, 值按属性类型转换 </b></em></p> */
+	public void setInt(Object entity, int value){
+		set(entity, convert(Integer.valueOf(value), getType()));
+	}
+
+	/** <p><b><em> 写入数值属性的值, 值按属性类型转换 </b></em></p> */
+	public void setLong(Object entity, long value){
+		set(entity, convert(Long.valueOf(value), getType()));
+	}
+
+	/** <p><b><em> 写入数值属性的值, 值按属性类型转换 </b></em></p> */
+	public void setDouble(Object entity, double value){
+		set(entity, convert(Double.valueOf(value), getType()));
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "(" + type.getName() + " " + name + ")";
+	}
+
+	/** <p><b><em> 将属性的值视为数值 </b></em></p> */
+	private Number toNumber(Object value){
+		if(value instanceof Number){
+			return (Number) value;
+		}
+		if(value instanceof Character){
+			return Integer.valueOf(((Character) value).charValue());
+		}
+		throw new IllegalArgumentException(
+			StringUtil.parsePlaceholder("属性 ? 的值 ? 不是数值类型", name, String.valueOf(value))
+		);
+	}
+
+	/** <p><b><em> 将数值转换为目标类型, 非数值或目标类型不是数值类型时原样返回 </b></em></p> */
+	static Object convert(Object value, Class<?> type){
+		if(!(value instanceof Number) || type.isInstance(value)){
+			return value;
+		}
+		Number number = (Number) value;
+		if(type == int.class || type == Integer.class){
+			return Integer.valueOf(number.intValue());
+		}else if(type == long.class || type == Long.class){
+			return Long.valueOf(number.longValue());
+		}else if(type == double.class || type == Double.class){
+			return Double.valueOf(number.doubleValue());
+		}else if(type == float.class || type == Float.class){
+			return Float.valueOf(number.floatValue());
+		}else if(type == short.class || type == Short.class){
+			return Short.valueOf(number.shortValue());
+		}else if(type == byte.class || type == Byte.class){
+			return Byte.valueOf(number.byteValue());
+		}
+		return value;
+	}
+
+	/** <p><b><em> 创建基于字段的访问器 </b></em></p> */
+	static PropertyAccessor ofField(Field field){
+		return new FieldAccessor(field);
+	}
+
+	/** <p><b><em> 创建基于 getter / setter 方法的访问器, 两者至少存在一个 </b></em></p> */
+	static PropertyAccessor ofMethods(String name, Class<?> type, Method getter, Method setter){
+		return new MethodAccessor(name, type, getter, setter);
+	}
+
+	/** <p><b><em> 创建沿字段路径逐级读写的访问器 </b></em></p> */
+	static PropertyAccessor ofPath(String path, PropertyAccessor[] chain){
+		return new PathAccessor(path, chain);
+	}
+
+	/**
+	 * <p> ##################################################### </p>
+	 * <p> @描述：基于可访问字段的属性访问器 </p>
+	 * <p> @作者：fancy </p>
+	 * <p> @邮箱：fancores@163.com </p>
+	 * <p> @日期：2014-06-05 </p>
+	 * <br> ##################################################### </p>
+	 */
+	private static final class FieldAccessor extends PropertyAccessor {
+
+		private final Field field;
+		/** <p><b><em> byte、short、char、int 类型, 可直接按 int 读取 </b></em></p> */
+		private final boolean intCompatible;
+		/** <p><b><em> 整数类型, 可直接按 long 读取 </b></em></p> */
+		private final boolean longCompatible;
+		/** <p><b><em> 数值类型, 可直接按 double 读取 </b></em></p> */
+		private final boolean doubleCompatible;
+
+		FieldAccessor(Field field){
+			super(field.getName(), field.getType());
+			this.field = field;
+			Class<?> type = field.getType();
+			intCompatible = type == int.class || type == short.class || type == byte.class || type == char.class;
+			longCompatible = intCompatible || type == long.class;
+			doubleCompatible = longCompatible || type == double.class || type == float.class;
+		}
+
+		@Override
+		public boolean isReadable() {
+			return true;
+		}
+
+		@Override
+		public boolean isWritable() {
+			return true;
+		}
+
+		@Override
+		public Object get(Object entity) {
+			try {
+				return field.get(entity);
+			} catch (IllegalAccessException e) {
+				throw new ExecutetimeException(e);
+			}
+		}
+
+		@Override
+		public void set(Object entity, Object value) {
+			try {
+				field.set(entity, value);
+			} catch (IllegalAccessException e) {
+				throw new ExecutetimeException(e);
+			}
+		}
+
+		@Override
+		public int getInt(Object entity) {
+			if(!intCompatible){
+				return super.getInt(entity);
+			}
+			try {
+				return field.getInt(entity);
+			} catch (IllegalAccessException e) {
+				throw new ExecutetimeException(e);
+			}
+		}
+
+		@Override
+		public long getLong(Object entity) {
+			if(!longCompatible){
+				return super.getLong(entity);
+			}
+			try {
+				return field.getLong(entity);
+			} catch (IllegalAccessException e) {
+				throw new ExecutetimeException(e);
+			}
+		}
+
+		@Override
+		public double getDouble(Object entity) {
+			if(!doubleCompatible){
+				return super.getDouble(entity);
+			}
+			try {
+				return field.getDouble(entity);
+			} catch (IllegalAccessException e) {
+				throw new ExecutetimeException(e);
+			}
+		}
+
+		@Override
+		public void setInt(Object entity, int value) {
+			Class<?> type = getType();
+			if(type != int.class && type != long.class && type != double.class && type != float.class){
+				super.setInt(entity, value);
+				return;
+			}
+			try {
+				field.setInt(entity, value);
+			} catch (IllegalAccessException e) {
+				throw new ExecutetimeException(e);
+			}
+		}
+
+		@Override
+		public void setLong(Object entity, long value) {
+			Class<?> type = getType();
+			if(type != long.class && type != double.class && type != float.class){
+				super.setLong(entity, value);
+				return;
+			}
+			try {
+				field.setLong(entity, value);
+			} catch (IllegalAccessException e) {
+				throw new ExecutetimeException(e);
+			}
+		}
+
+		@Override
+		public void setDouble(Object entity, double value) {
+			if(getType() != double.class){
+				super.setDouble(entity, value);
+				return;
+			}
+			try {
+				field.setDouble(entity, value);
+			} catch (IllegalAccessException e) {
+				throw new ExecutetimeException(e);
+			}
+		}
+	}
+
+	/**
+	 * <p> ##################################################### </p>
+	 * <p> @描述：基于 getter / setter 方法的属性访问器 </p>
+	 * <p> @作者：fancy </p>
+	 * <p> @邮箱：fancores@163.com </p>
+	 * <p> @日期：2014-06-05 </p>
+	 * <br> ##################################################### </p>
+	 */
+	private static final class MethodAccessor extends PropertyAccessor {
+
+		private final Method getter;
+		private final Method setter;
+
+		MethodAccessor(String name, Class<?> type, Method getter, Method setter){
+			super(name, type);
+			this.getter = getter;
+			this.setter = setter;
+		}
+
+		@Override
+		public boolean isReadable() {
+			return getter != null;
+		}
+
+		@Override
+		public boolean isWritable() {
+			return setter != null;
+		}
+
+		@Override
+		public Object get(Object entity) {
+			if(getter == null){
+				throw new UnsupportedOperationException(getName() + " is not readable.");
+			}
+			try {
+				return getter.invoke(entity);
+			} catch (IllegalAccessException e) {
+				throw new ExecutetimeException(e);
+			} catch (InvocationTargetException e) {
+				throw new ExecutetimeException(e.getCause());
+			}
+		}
+
+		@Override
+		public void set(Object entity, Object value) {
+			if(setter == null){
+				throw new UnsupportedOperationException(getName() + " is not writable.");
+			}
+			try {
+				setter.invoke(entity, value);
+			} catch (IllegalAccessException e) {
+				throw new ExecutetimeException(e);
+			} catch (InvocationTargetException e) {
+				throw new ExecutetimeException(e.getCause());
+			}
+		}
+	}
+
+	/**
+	 * <p> ##################################################### </p>
+	 * <p> @描述：嵌套字段路径的属性访问器, 如 address.city。路径中间的字段值为空时读取结果为空 </p>
+	 * <p> @作者：fancy </p>
+	 * <p> @邮箱：fancores@163.com </p>
+	 * <p> @日期：2014-06-20 </p>
+	 * <br> ##################################################### </p>
+	 */
+	private static final class PathAccessor extends PropertyAccessor {
+
+		/** <p><b><em> 路径上逐级的字段访问器 </b></em></p> */
+		private final PropertyAccessor[] chain;
+		/** <p><b><em> 路径最后一级的字段访问器 </b></em></p> */
+		private final PropertyAccessor leaf;
+
+		PathAccessor(String path, PropertyAccessor[] chain){
+			super(path, chain[chain.length - 1].getType());
+			this.chain = chain;
+			this.leaf = chain[chain.length - 1];
+		}
+
+		@Override
+		public boolean isReadable() {
+			return true;
+		}
+
+		@Override
+		public boolean isWritable() {
+			return true;
+		}
+
+		@Override
+		public Object get(Object entity) {
+			Object owner = owner(entity);
+			return owner == null ? null : leaf.get(owner);
+		}
+
+		@Override
+		public void set(Object entity, Object value) {
+			Object owner = owner(entity);
+			if(owner == null){
+				throw new IllegalArgumentException(getName() + " 路径中的字段值为空");
+			}
+			leaf.set(owner, value);
+		}
+
+		/** <p><b><em> 沿路径读取最后一级字段所属的对象 </b></em></p> */
+		private Object owner(Object entity){
+			Object owner = entity;
+			for(int i = 0; i < chain.length - 1 && owner != null; i++){
+				owner = chain[i].get(owner);
+			}
+			return owner;
+		}
+	}
+}
@@ -1,7 +1,7 @@
 package fan.core.util;
 
-import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
@@ -46,7 +46,7 @@ public class Reflection {
 	 */
 	public static void setFieldValue(Object entity, String field, Object value) throws NoSuchFieldException {
 		try {
-			getAccessibleField(entity, field).set(entity, value);
+			getFieldAccessor(entity, field).set(entity, value);
 		} catch (Exception e) {
 			throw new NoSuchFieldException(
 				StringUtil.parsePlaceholder("类 ? 中找不到 ? 属性", 
@@ -81,7 +81,7 @@ public class Reflection {
 	@SuppressWarnings("unchecked")
 	public static <T> T getFieldValue(Object entity, String field) throws NoSuchFieldException {
 		try {
-			return (T) getAccessibleField(entity, field).get(entity);
+			return (T) getFieldAccessor(entity, field).get(entity);
 		} catch (Exception e) {
 			throw new NoSuchFieldException(
 				StringUtil.parsePlaceholder("类 ? 中找不到 ? 属性", 
@@ -114,8 +114,16 @@ public class Reflection {
 	 * </pre>
 	 */
 	public static void callSetterMethod(Object entity, String field, Object value) throws Throwable {
-		String method = "set" + StringUtil.toFirstLetterUpperCase(field);
-		invokeMethod(entity, method, new Object[]{value}, new Class<?>[]{getFieldType(entity, field)});
+		PropertyAccessor accessor = getPropertyAccessor(entity, field);
+		try {
+			accessor.set(entity, value);
+		} catch (Exception e) {
+			throw new NoSuchMethodException(
+				StringUtil.parsePlaceholder("类 ? 中找不到 ?(?) 方法", 
+					getEntityClassName(entity), "set" + StringUtil.toFirstLetterUpperCase(field), accessor.getType().getName()
+				)
+			);
+		}
 	}
 	
 	/**
@@ -140,13 +148,98 @@ public class Reflection {
 	 * >>> versionCode = 1.21
 	 * </pre>
 	 */
+	@SuppressWarnings("unchecked")
 	public static <T> T callGetterMethod(Object entity, String field) throws NoSuchMethodException {
-		String method = "get" + StringUtil.toFirstLetterUpperCase(field);
-		return invokeMethod(entity, method, null, null);
+		try {
+			return (T) getPropertyAccessor(entity, field).get(entity);
+		} catch (Exception e) {
+			throw new NoSuchMethodException(
+				StringUtil.parsePlaceholder("类 ? 中找不到 ?() 方法", 
+					getEntityClassName(entity), "get" + StringUtil.toFirstLetterUpperCase(field)
+				)
+			);
+		}
+	}
+	
+	/**
+	 * <p><b><em> 获取基于字段的属性访问器。访问器按类缓存, 应在循环外获取一次后反复使用 </em></b></p>
+	 * <p> 支持以 . 分隔的嵌套字段路径, 如 "address.city", 路径中间的字段值为空时读取结果为空 </p>
+	 * <pre>
+	 * >>> <b><em>Definition:</em></b>
+	 * >>> User(int id, String name, Date createDate)
+	 * >>> <b><em>e.g.</em></b>
+	 * >>> PropertyAccessor id = Reflection.getFieldAccessor(User.class, "id");
+	 * >>> PropertyAccessor name = Reflection.getFieldAccessor(User.class, "name");
+	 * >>> for(User user : userList){
+	 * >>>     System.out.println(id.getInt(user) + "    " + name.get(user));
+	 * >>> }
+	 * >>> <b><em>output look like :</em></b>
+	 * >>> 0    杨晓婷
+	 * >>> 1    杨忠杰
+	 * </pre>
+	 */
+	public static PropertyAccessor getFieldAccessor(Object entity, String field) throws NoSuchFieldException {
+		PropertyAccessor accessor = entity == null || field == null ? null : 
+			ClassMetadata.forClass(getEntityClass(entity)).getFieldAccessor(field);
+		if(accessor == null){
+			throw new NoSuchFieldException(
+				StringUtil.parsePlaceholder("类 ? 中找不到 ? 属性", 
+					getEntityClassName(entity), field
+				)
+			);
+		}
+		return accessor;
+	}
+	
+	/**
+	 * <p><b><em> 获取按下标读写字段属性的访问接口。属性名称应在循环外解析为下标, 循环内按下标读写 </em></b></p>
+	 * <pre>
+	 * >>> <b><em>Definition:</em></b>
+	 * >>> User(int id, String name, Date createDate)
+	 * >>> <b><em>e.g.</em></b>
+	 * >>> BeanAccess access = Reflection.getBeanAccess(User.class);
+	 * >>> int name = access.indexOf("name");
+	 * >>> for(User user : userList){
+	 * >>>     access.set(user, name, "杨晓婷");
+	 * >>> }
+	 * </pre>
+	 */
+	public static BeanAccess getBeanAccess(Class<?> entityClass){
+		return entityClass == null ? null : ClassMetadata.forClass(entityClass).getBeanAccess();
+	}
+	
+	/**
+	 * <p><b><em> 获取基于 getter / setter 方法的属性访问器。访问器按类缓存, 应在循环外获取一次后反复使用 </em></b></p>
+	 * <pre>
+	 * >>> <b><em>Definition:</em></b>
+	 * >>> Parents(String firstName, String lastName)
+	 * >>> Children(String firstName) <b><em>extends</em></b> Parents
+	 * >>> <b><em>e.g.</em></b>
+	 * >>> PropertyAccessor lastName = Reflection.getPropertyAccessor(Children.class, "lastName");
+	 * >>> Children child = new Children();
+	 * >>> lastName.set(child, "fan");
+	 * >>> System.out.println(lastName.get(child));
+	 * >>> <b><em>output look like :</em></b>
+	 * >>> last name : fan
+	 * </pre>
+	 */
+	public static PropertyAccessor getPropertyAccessor(Object entity, String property) throws NoSuchMethodException {
+		PropertyAccessor accessor = entity == null || property == null ? null : 
+			ClassMetadata.forClass(getEntityClass(entity)).getPropertyAccessor(property);
+		if(accessor == null){
+			throw new NoSuchMethodException(
+				StringUtil.parsePlaceholder("类 ? 中找不到 ? 属性的 getter / setter 方法", 
+					getEntityClassName(entity), property
+				)
+			);
+		}
+		return accessor;
 	}
 	
 	/**
 	 * <p><b><em> 调用构造方法 </em></b></p>
+	 * <p> 构造方法按类和参数类型缓存, 反复创建对象时应直接使用 getInstantiator 获取的创建器。
+	 *     异常与 Constructor.newInstance 一致: 构造方法抛出的异常包装为 InvocationTargetException, 抽象类抛出 InstantiationException </p>
 	 * <pre>
 	 * >>> <b><em>Definition Constructor :</em></b>
 	 * >>> <b><em>default</em></b> Children(String firstName, String lastName, double code)
@@ -160,17 +253,59 @@ public class Reflection {
 	 * </pre>
 	 */
 	public static <T> T callConstructor(Class<T> targetClass, Object[] argValues, Class<?>[] argTypes) throws Throwable {
-		try {
-			Constructor<T> constructor = targetClass.getDeclaredConstructor(argTypes);
-			constructor.setAccessible(true);
-			return constructor.newInstance(argValues);
-		} catch (Throwable e) {
-			throw e;
+		Instantiator.ConstructorInstantiator<T> instantiator = (Instantiator.ConstructorInstantiator<T>) getInstantiator(targetClass, argTypes);
+		return instantiator.constructor.newInstance(argValues);
+	}
+	
+	/**
+	 * <p><b><em> 获取与参数类型相同的构造方法的对象创建器。创建器按类和参数类型缓存, 应在循环外获取一次后反复使用 </em></b></p>
+	 * <pre>
+	 * >>> <b><em>e.g.</em></b>
+	 * >>> Instantiator&lt;Children&gt; instantiator = Reflection.getInstantiator(Children.class);
+	 * >>> for(int i = 0; i &lt; 10000; i++){
+	 * >>>     Children child = instantiator.newInstance();
+	 * >>> }
+	 * </pre>
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> Instantiator<T> getInstantiator(Class<T> targetClass, Class<?>... argTypes) throws NoSuchMethodException {
+		Instantiator<T> instantiator = targetClass == null ? null : 
+			(Instantiator<T>) ClassMetadata.forClass(targetClass).getInstantiator(argTypes);
+		if(instantiator == null){
+			throw new NoSuchMethodException(
+				StringUtil.parsePlaceholder("类 ? 中找不到 ?(?) 构造方法", 
+					getEntityClassName(targetClass), getEntityClassName(targetClass), StringUtil.toString(argTypes)
+				)
+			);
+		}
+		return instantiator;
+	}
+	
+	/**
+	 * <p><b><em> 获取不经构造方法创建对象的创建器, 创建的对象的字段保持默认值, 字段的初始化语句也不执行 </em></b></p>
+	 * <p> 用于没有无参构造方法、字段随后全部写入的场景, 如反序列化。类是抽象类、接口、枚举或运行环境不支持时抛出 UnsupportedOperationException </p>
+	 * <pre>
+	 * >>> <b><em>e.g.</em></b>
+	 * >>> Instantiator&lt;Children&gt; allocator = Reflection.getAllocator(Children.class);
+	 * >>> Children child = allocator.newInstance();
+	 * >>> Reflection.setFieldValue(child, "firstName", "zhong rong");
+	 * </pre>
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> Instantiator<T> getAllocator(Class<T> targetClass){
+		Instantiator<T> allocator = targetClass == null ? null : 
+			(Instantiator<T>) ClassMetadata.forClass(targetClass).getAllocator();
+		if(allocator == null){
+			throw new UnsupportedOperationException(
+				StringUtil.parsePlaceholder("不能不经构造方法创建类 ? 的对象", getEntityClassName(targetClass))
+			);
 		}
+		return allocator;
 	}
 	
 	/**
 	 * <p><b><em> 调用方法 </b></em></p>
+	 * <p> 参数类型不必与形参类型完全相同, 按 invoke 的重载解析规则匹配, 解析结果按类缓存。被调用的方法抛出的异常包装为 ExecutetimeException </p>
 	 * <pre>
 	 * >>> <b><em>Definition:</em></b>
 	 * >>> Parents(String firstName, String lastName)
@@ -194,15 +329,30 @@ public class Reflection {
 	 */
 	@SuppressWarnings("unchecked")
 	public static <T> T invokeMethod(Object entity, String method, Object[] argValues, Class<?>[] argTypes) throws NoSuchMethodException{
-		try {
-			return (T) getAccessibleMethod(entity, method, argTypes).invoke(entity, argValues);
-		} catch (Exception e) {
-			throw new NoSuchMethodException(
-				StringUtil.parsePlaceholder("类 ? 中找不到 ?(?) 方法", 
-					getEntityClassName(entity), method, StringUtil.toString(argTypes)
-				)
-			);
+		return (T) invoke(findMethod(entity, method, argTypes), entity, method, argValues, argTypes);
+	}
+	
+	/**
+	 * <p><b><em> 按实参的运行时类型解析重载并调用方法 </b></em></p>
+	 * <p> 实参可以是形参类型的子类, 也可以经装箱、拆箱、基本类型拓宽后传给形参, 空实参可以传给任意引用类型的形参。
+	 *     解析结果按类、方法名称和实参类型缓存, 同一调用点重复调用只需一次散列查找。被调用的方法抛出的异常包装为 ExecutetimeException </p>
+	 * <pre>
+	 * >>> <b><em>Definition:</em></b>
+	 * >>> Children(<b><em>static</em></b> double versionCode = 1.21)
+	 * >>> <b><em>e.g.</em></b>
+	 * >>> Children child = new Children();
+	 * >>> Reflection.invoke(child, "setLastName", "fan");
+	 * >>> Reflection.invoke(Children.class, "setVersionCode", 1.22);
+	 * >>> double versionCode = Reflection.invoke(Children.class, "getVersionCode");
+	 * </pre>
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> T invoke(Object entity, String method, Object... args) throws NoSuchMethodException {
+		Class<?>[] argTypes = new Class<?>[args == null ? 0 : args.length];
+		for(int i = 0; i < argTypes.length; i++){
+			argTypes[i] = args[i] == null ? null : args[i].getClass();
 		}
+		return (T) invoke(findMethod(entity, method, argTypes), entity, method, args, argTypes);
 	}
 	
 	/**
@@ -371,19 +521,20 @@ public class Reflection {
 	 * </pre>
 	 */
 	public static Class<?> getFieldType(Object entity, String field) throws NoSuchFieldException {
-		try {
-			return getAccessibleField(entity, field).getType();
-		} catch (NullPointerException e) {
+		Field target = getAccessibleField(entity, field);
+		if(target == null){
 			throw new NoSuchFieldException(
 				StringUtil.parsePlaceholder("类 ? 中找不到 ? 属性", 
 					getEntityClassName(entity), field
 				)
 			);
 		}
+		return target.getType();
 	}
 	
 	/**
 	 * <p><b><em> 获取方法列表, 并将方法设置为可访问 </b></em></p>
+	 * <p> 列表按类缓存, 只展开一次类层次, 不可修改 </p>
 	 * <pre>
 	 * >>> <b><em>Definition:</em></b>
 	 * >>> Parents(String firstName, String lastName)
@@ -408,15 +559,7 @@ public class Reflection {
 	 * </pre>
 	 */
 	public static List<Method> getDeclaredMethodList(Class<?> entityClass){
-		if(entityClass == null){
-			return null;
-		}
-		List<Method> methods = new ArrayList<Method>();
-		while(entityClass != null){
-			methods.addAll(getCurrentClassMethodList(entityClass));
-			entityClass = entityClass.getSuperclass();
-		}
-		return methods;
+		return entityClass == null ? null : ClassMetadata.forClass(entityClass).getDeclaredMethods().list;
 	}
 	
 	/**
@@ -443,19 +586,12 @@ public class Reflection {
 	 * </pre>
 	 */
 	public static List<String> getDeclaredMethodNameList(Class<?> entityClass){
-		if(entityClass == null){
-			return null;
-		}
-		List<Method> methods = getDeclaredMethodList(entityClass);
-		List<String> names = new ArrayList<String>(methods.size());
-		for(Method method : methods){
-			names.add(method.getName());
-		}
-		return names;
+		return entityClass == null ? null : ClassMetadata.forClass(entityClass).getDeclaredMethods().names;
 	}
 	
 	/**
 	 * <p><b><em> 获取字段属性列表, 并将字段属性设置为可访问 </b></em></p>
+	 * <p> 列表按类缓存, 只展开一次类层次, 不可修改。父类中被遮蔽的同名字段也在列表中, 只需可见的字段时使用 getVisibleFieldList </p>
 	 * <pre>
 	 * >>> <b><em>Definition:</em></b>
 	 * >>> Parents(String firstName, String lastName)
@@ -472,15 +608,7 @@ public class Reflection {
 	 * </pre>
 	 */
 	public static List<Field> getDeclaredFieldList(Class<?> entityClass){
-		if(entityClass == null){
-			return null;
-		}
-		List<Field> fields = new ArrayList<Field>();
-		while(entityClass != null){
-			fields.addAll(getCurrentClassFieldList(entityClass));
-			entityClass = entityClass.getSuperclass();
-		}
-		return fields;
+		return entityClass == null ? null : ClassMetadata.forClass(entityClass).getDeclaredFields().list;
 	}
 	
 	/**
@@ -501,19 +629,66 @@ public class Reflection {
 	 * </pre>
 	 */
 	public static List<String> getDeclaredFieldNameList(Class<?> entityClass){
-		if(entityClass == null){
-			return null;
-		}
-		List<Field> fields = getDeclaredFieldList(entityClass);
-		List<String> names = new ArrayList<String>(fields.size());
-		for(Field field : fields){
-			names.add(field.getName());
-		}
-		return names;
+		return entityClass == null ? null : ClassMetadata.forClass(entityClass).getDeclaredFields().names;
+	}
+	
+	/**
+	 * <p><b><em> 获取未被子类同名字段遮蔽的字段属性列表, 子类的字段在前。列表按类缓存, 不可修改 </b></em></p>
+	 * <pre>
+	 * >>> <b><em>Definition:</em></b>
+	 * >>> Parents(String firstName, String lastName)
+	 * >>> Children(String firstName) <b><em>extends</em></b> Parents
+	 * >>> <b><em>e.g.</em></b>
+	 * >>> List&lt;Field&gt; fieldList = Reflection.getVisibleFieldList(Children.class);
+	 * >>> for(Field field : fieldList){
+	 * >>>     System.out.println(field);
+	 * >>> }
+	 * >>> <b><em>output look like :</em></b>
+	 * >>> private java.lang.String fan.core.test.model.Children.firstName
+	 * >>> protected java.lang.String fan.core.test.model.Parents.lastName
+	 * </pre>
+	 */
+	public static List<Field> getVisibleFieldList(Class<?> entityClass){
+		return entityClass == null ? null : ClassMetadata.forClass(entityClass).getVisibleFields().list;
+	}
+	
+	/** <p><b><em> 获取未被子类同名同参数类型的方法覆盖的方法列表, 子类的方法在前。列表按类缓存, 不可修改 </b></em></p> */
+	public static List<Method> getVisibleMethodList(Class<?> entityClass){
+		return entityClass == null ? null : ClassMetadata.forClass(entityClass).getVisibleMethods().list;
+	}
+	
+	/**
+	 * <p><b><em> 获取字段属性数组, 与 getDeclaredFieldList 的元素相同, 遍历时不创建迭代器 </b></em></p>
+	 * <p> 返回的是按类缓存的共享数组, 不能修改 </p>
+	 * <pre>
+	 * >>> <b><em>e.g.</em></b>
+	 * >>> for(Field field : Reflection.getDeclaredFields(Children.class)){
+	 * >>>     System.out.println(field.getName());
+	 * >>> }
+	 * </pre>
+	 */
+	public static Field[] getDeclaredFields(Class<?> entityClass){
+		return entityClass == null ? null : ClassMetadata.forClass(entityClass).getDeclaredFields().array;
+	}
+	
+	/** <p><b><em> 获取未被遮蔽的字段属性数组, 与 getVisibleFieldList 的元素相同。返回的是共享数组, 不能修改 </b></em></p> */
+	public static Field[] getVisibleFields(Class<?> entityClass){
+		return entityClass == null ? null : ClassMetadata.forClass(entityClass).getVisibleFields().array;
+	}
+	
+	/** <p><b><em> 获取方法数组, 与 getDeclaredMethodList 的元素相同。返回的是共享数组, 不能修改 </b></em></p> */
+	public static Method[] getDeclaredMethods(Class<?> entityClass){
+		return entityClass == null ? null : ClassMetadata.forClass(entityClass).getDeclaredMethods().array;
+	}
+	
+	/** <p><b><em> 获取未被覆盖的方法数组, 与 getVisibleMethodList 的元素相同。返回的是共享数组, 不能修改 </b></em></p> */
+	public static Method[] getVisibleMethods(Class<?> entityClass){
+		return entityClass == null ? null : ClassMetadata.forClass(entityClass).getVisibleMethods().array;
 	}
 	
 	/**
 	 * <p><b><em> 获取与参数同名的可访问的字段对象 </b></em></p>
+	 * <p> 解析结果（包括查找不到的结果）按类缓存, 重复查找只需一次散列查找 </p>
 	 * <pre>
 	 * >>> <b><em>Definition:</em></b>
 	 * >>> Parents(String firstName, String lastName)
@@ -530,21 +705,12 @@ public class Reflection {
 		if(entity == null || field == null){
 			return null;
 		}
-		Class<?> entityClass = entity instanceof Class ? (Class<?>) entity : entity.getClass();
-		while(entityClass != null){
-			try {
-				Field target = entityClass.getDeclaredField(field);
-				target.setAccessible(true);
-				return target;
-			} catch (Exception e) { /* 尝试获取与参数同名的字段对象, 无需处理抛出的异常 */ }
-			/* 当前类查找不到, 回溯到父类继续查找 */
-			entityClass = entityClass.getSuperclass();
-		}
-		return null;
+		return ClassMetadata.forClass(getEntityClass(entity)).getField(field);
 	}
 	
 	/**
 	 * <p><b><em> 获取与参数同名的可访问的方法对象 </b></em></p>
+	 * <p> 解析结果（包括查找不到的结果）按类缓存, 重复查找只需一次散列查找 </p>
 	 * <pre>
 	 * >>> <b><em>Definition:</em></b>
 	 * >>> Parents(String firstName, String lastName)
@@ -561,17 +727,47 @@ public class Reflection {
 		if(entity == null || method == null){
 			return null;
 		}
-		Class<?> entityClass = entity instanceof Class ? (Class<?>) entity : entity.getClass();
-		while(entityClass != null){
-			try {
-				Method target = entityClass.getDeclaredMethod(method, type);
-				target.setAccessible(true);
-				return target;
-			} catch (Exception e) { /* 尝试获取与参数同名的方法对象, 无需处理抛出的异常 */ }
-			/* 当前类查找不到, 回溯到父类继续查找 */
-			entityClass = entityClass.getSuperclass();
+		return ClassMetadata.forClass(getEntityClass(entity)).getMethod(method, type);
+	}
+	
+	/** <p><b><em> 按参数类型解析重载, 查找不到时抛出 NoSuchMethodException </b></em></p> */
+	private static Method findMethod(Object entity, String method, Class<?>[] argTypes) throws NoSuchMethodException {
+		Method target = entity == null || method == null ? null : 
+			ClassMetadata.forClass(getEntityClass(entity)).findMethod(method, argTypes);
+		if(target == null){
+			throw noSuchMethod(entity, method, argTypes);
 		}
-		return null;
+		return target;
+	}
+	
+	/**
+	 * <p><b><em> 调用已解析的方法, 被调用的方法抛出的异常包装为 ExecutetimeException </b></em></p>
+	 * <p> 实参与声明的类型不符或实例方法的实体不是类的实例时, 与找不到方法一样抛出 NoSuchMethodException </p>
+	 */
+	private static Object invoke(Method target, Object entity, String method, Object[] argValues, Class<?>[] argTypes) throws NoSuchMethodException {
+		try {
+			return target.invoke(entity, argValues);
+		} catch (IllegalArgumentException e) {
+			throw noSuchMethod(entity, method, argTypes);
+		} catch (IllegalAccessException e) {
+			throw new ExecutetimeException(e);
+		} catch (InvocationTargetException e) {
+			throw new ExecutetimeException(e.getCause());
+		}
+	}
+	
+	/** <p><b><em> 找不到方法的异常 </b></em></p> */
+	private static NoSuchMethodException noSuchMethod(Object entity, String method, Class<?>[] argTypes){
+		return new NoSuchMethodException(
+			StringUtil.parsePlaceholder("类 ? 中找不到 ?(?) 方法", 
+				getEntityClassName(entity), method, StringUtil.toString(argTypes)
+			)
+		);
+	}
+	
+	/** <p><b><em> 获取实体的类, 参数本身是类时返回参数本身 </b></em></p> */
+	private static Class<?> getEntityClass(Object entity){
+		return entity instanceof Class ? (Class<?>) entity : entity.getClass();
 	}
 	
 	/** <p><b><em> 获取实体类的短名称 </b></em></p> */
@@ -0,0 +1,183 @@
+package fan.core.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import fan.core.util.Container.NullOrder;
+import fan.core.util.Container.SimpleComparator;
+import fan.core.util.Container.SimpleComparator.SortKey;
+/**
+ * <p> ##################################################### </p>
+ * <p> @描述：多关键字排序规则, 相当于 ORDER BY a ASC, b DESC, c ASC </p>
+ * <p> 每个关键字可分别指定升序降序和空值的排列位置, 关键字支持以 . 分隔的嵌套字段路径。
+ *     排序时所有关键字预先提取, 一次稳定排序完成 </p>
+ * <pre>
+ * >>> <b><em>Definition Class :</em></b>
+ * >>> User(int id, String name, Date createDate, Address address)
+ * >>> Address(String province, String city)
+ * >>> <b><em>e.g.</em></b>
+ * >>> SortSpec&lt;User&gt; spec = SortSpec.of(User.class)
+ * >>>     .asc("address.city")
+ * >>>     .desc("createDate", NullOrder.FIRST)
+ * >>>     .asc("name")
+ * >>>     .locale(Locale.CHINA);
+ * >>> Container.sortBy(userList, spec);
+ * >>> Testing.printObject(userList);
+ * </pre>
+ * <p> @作者：fancy </p>
+ * <p> @邮箱：fancores@163.com </p>
+ * <p> @日期：2014-06-20 </p>
+ * <br> ##################################################### </p>
+ */
+public class SortSpec<T> {
+
+	/** <p><b><em> 实体类 </b></em></p> */
+	private final Class<T> entityClass;
+	/** <p><b><em> 关键字 </b></em></p> */
+	private final List<String> keys = new ArrayList<String>();
+	/** <p><b><em> 关键字的排序方式 </b></em></p> */
+	private final List<SortKey> sortKeys = new ArrayList<SortKey>();
+	/** <p><b><em> 关键字为空的元素的排列位置 </b></em></p> */
+	private final List<NullOrder> nullOrders = new ArrayList<NullOrder>();
+	/** <p><b><em> 字符类型的关键字的语言环境, 为空时按 GBK 编码排序 </b></em></p> */
+	private Locale locale;
+
+	public SortSpec(Class<T> entityClass){
+		this.entityClass = entityClass;
+	}
+
+	/** <p><b><em> 创建实体类的排序规则 </b></em></p> */
+	public static <T> SortSpec<T> of(Class<T> entityClass){
+		return new SortSpec<T>(entityClass);
+	}
+
+	/** <p><b><em> 追加升序关键字, 关键字为空的元素排在最后 </b></em></p> */
+	public SortSpec<T> asc(String key){
+		return add(key, SortKey.ASC, NullOrder.LAST);
+	}
+
+	/** <p><b><em> 追加升序关键字, 并指定关键字为空的元素的排列位置 </b></em></p> */
+	public SortSpec<T> asc(String key, NullOrder nullOrder){
+		return add(key, SortKey.ASC, nullOrder);
+	}
+
+	/** <p><b><em> 追加降序关键字, 关键字为空的元素排在最后 </b></em></p> */
+	public SortSpec<T> desc(String key){
+		return add(key, SortKey.DESC, NullOrder.LAST);
+	}
+
+	/** <p><b><em> 追加降序关键字, 并指定关键字为空的元素的排列位置 </b></em></p> */
+	public SortSpec<T> desc(String key, NullOrder nullOrder){
+		return add(key, SortKey.DESC, nullOrder);
+	}
+
+	/** <p><b><em> 指定字符类型的关键字按语言环境的排序规则排序, 如 Locale.CHINA 按拼音排序 </b></em></p> */
+	public SortSpec<T> locale(Locale locale){
+		this.locale = locale;
+		return this;
+	}
+
+	/** <p><b><em> 获取实体类 </b></em></p> */
+	public Class<T> getEntityClass() {
+		return entityClass;
+	}
+
+	/** <p><b><em> 追加关键字 </b></em></p> */
+	SortSpec<T> add(String key, SortKey sortKey, NullOrder nullOrder){
+		keys.add(key);
+		sortKeys.add(sortKey);
+		nullOrders.add(nullOrder == null ? NullOrder.LAST : nullOrder);
+		return this;
+	}
+
+	/** <p><b><em> 编译为按下标比较的复合比较器, 每次排序使用新的比较器 </b></em></p> */
+	CompoundComparator compile(){
+		SimpleComparator[] comparators = new SimpleComparator[keys.size()];
+		for(int i = 0; i < comparators.length; i++){
+			comparators[i] = new SimpleComparator(entityClass, keys.get(i), sortKeys.get(i), nullOrders.get(i), locale);
+		}
+		return new CompoundComparator(comparators);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("ORDER BY ");
+		for(int i = 0; i < keys.size(); i++){
+			builder.append(i == 0 ? "" : ", ").append(keys.get(i)).append(' ').append(sortKeys.get(i).name())
+				.append(" NULLS ").append(nullOrders.get(i).name());
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * <p> ##################################################### </p>
+	 * <p> @描述：复合比较器。依次比较各关键字, 前一关键字相等时才比较后一关键字 </p>
+	 * <p> @作者：fancy </p>
+	 * <p> @邮箱：fancores@163.com </p>
+	 * <p> @日期：2014-06-20 </p>
+	 * <br> ##################################################### </p>
+	 */
+	static final class CompoundComparator implements IndexSorter.IndexComparator {
+
+		private final SimpleComparator[] comparators;
+
+		CompoundComparator(SimpleComparator[] comparators){
+			this.comparators = comparators;
+		}
+
+		/** <p><b><em> 提取每个元素的各关键字的值 </b></em></p> */
+		void extract(Object[] source){
+			for(SimpleComparator comparator : comparators){
+				comparator.extract(source);
+			}
+		}
+
+		/** <p><b><em> 将元素均分为 parts 段, 并行提取每个元素的各关键字的值 </b></em></p> */
+		void extract(Object[] source, int parts){
+			for(SimpleComparator comparator : comparators){
+				comparator.extract(source, parts);
+			}
+		}
+
+		/** <p><b><em> 分配存放各关键字的值的空间 </b></em></p> */
+		void allocate(int size){
+			for(SimpleComparator comparator : comparators){
+				comparator.allocate(size);
+			}
+		}
+
+		/** <p><b><em> 调整存放各关键字的值的空间, 保留已提取的值 </b></em></p> */
+		void resize(int size){
+			for(SimpleComparator comparator : comparators){
+				comparator.resize(size);
+			}
+		}
+
+		/** <p><b><em> 每个元素的各关键字的值所占的字节数 </b></em></p> */
+		int keyWidth(){
+			int width = 0;
+			for(SimpleComparator comparator : comparators){
+				width += comparator.keyWidth();
+			}
+			return width;
+		}
+
+		/** <p><b><em> 提取一个元素的各关键字的值, 存放到下标所对应的位置 </b></em></p> */
+		void extract(int index, Object entity){
+			for(SimpleComparator comparator : comparators){
+				comparator.extract(index, entity);
+			}
+		}
+
+		@Override
+		public int compare(int i, int j) {
+			for(SimpleComparator comparator : comparators){
+				int result = comparator.compare(i, j);
+				if(result != 0){
+					return result;
+				}
+			}
+			return 0;
+		}
+	}
+}
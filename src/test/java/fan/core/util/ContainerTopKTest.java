@@ -0,0 +1,61 @@
+package fan.core.util;
+
+import static org.junit.Assert.assertEquals;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+/**
+ * <p> ##################################################### </p>
+ * <p> @描述：Container.topK 测试 </p>
+ * <p> @作者：fancy </p>
+ * <p> @邮箱：fancores@163.com </p>
+ * <p> @日期：2014-07-10 </p>
+ * <br> ##################################################### </p>
+ */
+public class ContainerTopKTest {
+
+	public static class Item {
+
+		public int id;
+		public Integer value;
+
+		Item(int id, Integer value){
+			this.id = id;
+			this.value = value;
+		}
+
+		@Override
+		public String toString() {
+			return id + ":" + value;
+		}
+	}
+
+	/** <p><b><em> k 远大于元素数量时返回全部元素, 不按 k 分配空间 </b></em></p> */
+	@Test
+	public void largeKOnSmallInput(){
+		List<Item> items = Arrays.asList(new Item(0, 3), new Item(1, 1), new Item(2, 2));
+		assertEquals("[1:1, 2:2, 0:3]", Container.topKByAsc(items, Item.class, "value", Integer.MAX_VALUE).toString());
+		assertEquals("[0:3, 2:2, 1:1]", Container.topK(items.iterator(), SortSpec.of(Item.class).desc("value"), Integer.MAX_VALUE).toString());
+	}
+
+	/** <p><b><em> 元素数量未知时堆逐步扩大, 结果与稳定排序后的前 k 个元素相同 </b></em></p> */
+	@Test
+	public void matchesStableSort(){
+		Random random = new Random(11);
+		List<Item> items = new ArrayList<Item>();
+		for(int i = 0; i < 5000; i++){
+			items.add(new Item(i, random.nextInt(10) == 0 ? null : Integer.valueOf(random.nextInt(100))));
+		}
+		SortSpec<Item> spec = SortSpec.of(Item.class).asc("value");
+		List<Item> sorted = Container.sorted(items, spec);
+		for(int k : new int[]{1, 15, 16, 17, 100, 4999, 5000, 5001, Integer.MAX_VALUE}){
+			List<Item> expected = sorted.subList(0, Math.min(k, sorted.size()));
+			assertEquals("k " + k, expected, Container.topK(items, spec, k));
+			Iterator<Item> iterator = items.iterator();
+			assertEquals("k " + k, expected, Container.topK(iterator, spec, k));
+		}
+	}
+}
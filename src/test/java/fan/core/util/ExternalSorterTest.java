@@ -0,0 +1,91 @@
+package fan.core.util;
+
+import static org.junit.Assert.assertEquals;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+/**
+ * <p> ##################################################### </p>
+ * <p> @描述：ExternalSorter 测试 </p>
+ * <p> @作者：fancy </p>
+ * <p> @邮箱：fancores@163.com </p>
+ * <p> @日期：2014-07-10 </p>
+ * <br> ##################################################### </p>
+ */
+public class ExternalSorterTest {
+
+	public static class Item {
+
+		public int id;
+		public Integer group;
+		public String text;
+
+		Item(int id, Integer group, String text){
+			this.id = id;
+			this.group = group;
+			this.text = text;
+		}
+
+		@Override
+		public String toString() {
+			return id + ":" + group;
+		}
+	}
+
+	private static final EntitySerializer<Item> SERIALIZER = new EntitySerializer<Item>() {
+
+		@Override
+		public void write(Item item, DataOutput out) throws IOException {
+			out.writeInt(item.id);
+			out.writeBoolean(item.group != null);
+			if(item.group != null){
+				out.writeInt(item.group.intValue());
+			}
+			out.writeUTF(item.text);
+		}
+
+		@Override
+		public Item read(DataInput in) throws IOException {
+			int id = in.readInt();
+			Integer group = in.readBoolean() ? Integer.valueOf(in.readInt()) : null;
+			return new Item(id, group, in.readUTF());
+		}
+
+	};
+
+	/** <p><b><em> 缓冲区在实体序列化中途写满、实体大于缓冲区、多趟归并时, 结果与稳定排序相同 </b></em></p> */
+	@Test
+	public void matchesStableSortUnderSmallBudgets() throws IOException {
+		Random random = new Random(7);
+		List<Item> items = new ArrayList<Item>();
+		for(int i = 0; i < 3000; i++){
+			StringBuilder text = new StringBuilder();
+			int length = random.nextInt(50) == 0 ? 5000 : random.nextInt(40);
+			for(int j = 0; j < length; j++){
+				text.append('x');
+			}
+			items.add(new Item(i, random.nextInt(8) == 0 ? null : Integer.valueOf(random.nextInt(40)), text.toString()));
+		}
+		SortSpec<Item> spec = SortSpec.of(Item.class).desc("group");
+		String expected = Container.sorted(items, spec).toString();
+		for(int budget : new int[]{1, 300, 4096, 1 << 20}){
+			for(int fanIn : new int[]{2, 64}){
+				ExternalSorter.SortedIterator<Item> iterator = new ExternalSorter<Item>(spec, SERIALIZER)
+					.memoryBudget(budget).maxFanIn(fanIn).sort(items.iterator());
+				List<Item> sorted = new ArrayList<Item>();
+				try {
+					while(iterator.hasNext()){
+						sorted.add(iterator.next());
+					}
+				} finally {
+					iterator.close();
+				}
+				assertEquals("budget " + budget + ", fanIn " + fanIn, expected, sorted.toString());
+			}
+		}
+	}
+}
@@ -0,0 +1,43 @@
+package fan.core.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+/**
+ * <p> ##################################################### </p>
+ * <p> @描述：LongHashSet 测试 </p>
+ * <p> @作者：fancy </p>
+ * <p> @邮箱：fancores@163.com </p>
+ * <p> @日期：2014-07-10 </p>
+ * <br> ##################################################### </p>
+ */
+public class LongHashSetTest {
+
+	/** <p><b><em> 按预期数量创建的集合添加 expectedSize 个元素后不扩容, 包括 expectedSize / 0.75 恰为 2 的幂的情况 </b></em></p> */
+	@Test
+	public void expectedSizeFitsWithoutRehash(){
+		for(int expectedSize = 0; expectedSize <= 1000; expectedSize++){
+			LongHashSet set = new LongHashSet(expectedSize);
+			int capacity = set.capacity();
+			for(long value = 1; value <= expectedSize; value++){
+				set.add(value);
+			}
+			assertEquals("expectedSize " + expectedSize, capacity, set.capacity());
+			assertEquals(expectedSize, set.size());
+		}
+	}
+
+	/** <p><b><em> 超出预期数量后扩容, 元素全部保留 </b></em></p> */
+	@Test
+	public void growsBeyondExpectedSize(){
+		LongHashSet set = new LongHashSet(12);
+		int capacity = set.capacity();
+		for(long value = 1; value <= 13; value++){
+			set.add(value);
+		}
+		assertTrue(set.capacity() > capacity);
+		for(long value = 1; value <= 13; value++){
+			assertTrue(set.contains(value));
+		}
+	}
+}
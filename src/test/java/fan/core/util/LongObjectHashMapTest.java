@@ -0,0 +1,43 @@
+package fan.core.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+/**
+ * <p> ##################################################### </p>
+ * <p> @描述：LongObjectHashMap 测试 </p>
+ * <p> @作者：fancy </p>
+ * <p> @邮箱：fancores@163.com </p>
+ * <p> @日期：2014-07-10 </p>
+ * <br> ##################################################### </p>
+ */
+public class LongObjectHashMapTest {
+
+	/** <p><b><em> 按预期数量创建的散列表放入 expectedSize 个键后不扩容, 包括 expectedSize / 0.75 恰为 2 的幂的情况 </b></em></p> */
+	@Test
+	public void expectedSizeFitsWithoutRehash(){
+		for(int expectedSize = 0; expectedSize <= 1000; expectedSize++){
+			LongObjectHashMap<String> map = new LongObjectHashMap<String>(expectedSize);
+			int capacity = map.capacity();
+			for(long key = 1; key <= expectedSize; key++){
+				map.put(key, "v");
+			}
+			assertEquals("expectedSize " + expectedSize, capacity, map.capacity());
+			assertEquals(expectedSize, map.size());
+		}
+	}
+
+	/** <p><b><em> 超出预期数量后扩容, 键值对全部保留 </b></em></p> */
+	@Test
+	public void growsBeyondExpectedSize(){
+		LongObjectHashMap<Long> map = new LongObjectHashMap<Long>(12);
+		int capacity = map.capacity();
+		for(long key = 1; key <= 13; key++){
+			map.put(key, Long.valueOf(key));
+		}
+		assertTrue(map.capacity() > capacity);
+		for(long key = 1; key <= 13; key++){
+			assertEquals(Long.valueOf(key), map.get(key));
+		}
+	}
+}
@@ -0,0 +1,68 @@
+package fan.core.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import java.lang.reflect.InvocationTargetException;
+import org.junit.Test;
+/**
+ * <p> ##################################################### </p>
+ * <p> @描述：Reflection.callConstructor 测试 </p>
+ * <p> @作者：fancy </p>
+ * <p> @邮箱：fancores@163.com </p>
+ * <p> @日期：2014-07-10 </p>
+ * <br> ##################################################### </p>
+ */
+public class ReflectionConstructorTest {
+
+	public static class Failing {
+
+		public Failing(String message){
+			throw new IllegalStateException(message);
+		}
+	}
+
+	public static abstract class Shape {
+
+		public Shape(){
+
+		}
+	}
+
+	public static class Point {
+
+		final int x;
+
+		Point(int x){
+			this.x = x;
+		}
+	}
+
+	@Test
+	public void callsCachedConstructor() throws Throwable {
+		Point point = Reflection.callConstructor(Point.class, new Object[]{7}, new Class<?>[]{int.class});
+		assertEquals(7, point.x);
+	}
+
+	/** <p><b><em> 构造方法抛出的异常包装为 InvocationTargetException, 与 Constructor.newInstance 一致 </b></em></p> */
+	@Test
+	public void constructorExceptionSurfacesAsInvocationTargetException() throws Throwable {
+		try {
+			Reflection.callConstructor(Failing.class, new Object[]{"boom"}, new Class<?>[]{String.class});
+			fail("expected InvocationTargetException");
+		} catch (InvocationTargetException e) {
+			assertEquals(IllegalStateException.class, e.getCause().getClass());
+			assertEquals("boom", e.getCause().getMessage());
+		}
+	}
+
+	/** <p><b><em> 抽象类抛出 InstantiationException </b></em></p> */
+	@Test
+	public void abstractClassSurfacesAsInstantiationException() throws Throwable {
+		try {
+			Reflection.callConstructor(Shape.class, new Object[0], new Class<?>[0]);
+			fail("expected InstantiationException");
+		} catch (InstantiationException e) {
+			/* 与 Constructor.newInstance 一致 */
+		}
+	}
+}